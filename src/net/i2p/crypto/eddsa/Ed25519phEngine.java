@@ -0,0 +1,185 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * Signing and verification for Ed25519ph, the pre-hashed variant of Ed25519.
+ *<p>
+ * The message is hashed with SHA-512 as it is passed to update(), and the
+ * signature is computed over the 64-byte hash, so the message never needs
+ * to be buffered. Note that Ed25519ph signatures are not compatible with
+ * ordinary Ed25519 signatures over the same message.
+ *</p><p>
+ * If the message has already been hashed elsewhere, use
+ * {@link #signPrehash(byte[])} and {@link #verifyPrehash(byte[], byte[])}.
+ *</p><p>
+ * Only the empty context is supported.
+ *</p><p>
+ * Ref: https://tools.ietf.org/html/rfc8032#section-5.1
+ *</p>
+ * @author str4d
+ *
+ */
+public final class Ed25519phEngine extends Signature {
+    public static final String SIGNATURE_ALGORITHM = "Ed25519ph";
+
+    private static final String HASH_ALGORITHM = "SHA-512";
+    private static final int PREHASH_LENGTH = 64;
+
+    /**
+     * dom2(1, "") = "SigEd25519 no Ed25519 collisions" || 1 || 0
+     */
+    private static final byte[] DOM2;
+    static {
+        byte[] prefix = "SigEd25519 no Ed25519 collisions".getBytes(Charset.forName("US-ASCII"));
+        DOM2 = new byte[prefix.length + 2];
+        System.arraycopy(prefix, 0, DOM2, 0, prefix.length);
+        DOM2[prefix.length] = 1;
+        DOM2[prefix.length + 1] = 0;
+    }
+
+    private final MessageDigest prehash;
+    private final MessageDigest digest;
+    private EdDSAKey key;
+
+    public Ed25519phEngine() throws NoSuchAlgorithmException {
+        super(SIGNATURE_ALGORITHM);
+        prehash = MessageDigest.getInstance(HASH_ALGORITHM);
+        digest = MessageDigest.getInstance(HASH_ALGORITHM);
+    }
+
+    /**
+     * DOM2 is only defined for Ed25519, so other curves are rejected even if
+     * they use the same hash.
+     */
+    private void checkParams(EdDSAKey key) throws InvalidKeyException {
+        if (!EdDSANamedCurveTable.ED_25519_CURVE_SPEC.equals(key.getParams()))
+            throw new InvalidKeyException("Ed25519ph requires an Ed25519 key");
+    }
+
+    @Override
+    protected void engineInitSign(PrivateKey privateKey) throws InvalidKeyException {
+        if (privateKey instanceof EdDSAPrivateKey) {
+            checkParams((EdDSAPrivateKey) privateKey);
+            key = (EdDSAPrivateKey) privateKey;
+            prehash.reset();
+        } else {
+            throw new InvalidKeyException("cannot identify EdDSA private key: " + privateKey.getClass());
+        }
+    }
+
+    @Override
+    protected void engineInitVerify(PublicKey publicKey) throws InvalidKeyException {
+        if (publicKey instanceof EdDSAPublicKey) {
+            checkParams((EdDSAPublicKey) publicKey);
+            key = (EdDSAPublicKey) publicKey;
+            prehash.reset();
+        } else {
+            throw new InvalidKeyException("cannot identify EdDSA public key: " + publicKey.getClass());
+        }
+    }
+
+    @Override
+    protected void engineUpdate(byte b) {
+        prehash.update(b);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] b, int off, int len) {
+        prehash.update(b, off, len);
+    }
+
+    @Override
+    protected void engineUpdate(ByteBuffer input) {
+        prehash.update(input);
+    }
+
+    @Override
+    protected byte[] engineSign() throws SignatureException {
+        return signPrehash(prehash.digest());
+    }
+
+    @Override
+    protected boolean engineVerify(byte[] sigBytes) throws SignatureException {
+        return verifyPrehash(prehash.digest(), sigBytes);
+    }
+
+    /**
+     * Signs a message that has already been hashed with SHA-512.
+     * Any data passed to update() is ignored and discarded.
+     *
+     * @param ph the SHA-512 hash of the message
+     * @return the signature
+     * @throws SignatureException if not initialized for signing, or ph is the wrong length
+     */
+    public byte[] signPrehash(byte[] ph) throws SignatureException {
+        prehash.reset();
+        if (!(key instanceof EdDSAPrivateKey))
+            throw new SignatureException("not initialized for signing");
+        if (ph.length != PREHASH_LENGTH)
+            throw new SignatureException("prehash length is wrong");
+        EdDSAPrivateKey privKey = (EdDSAPrivateKey) key;
+        digest.reset();
+        digest.update(DOM2);
+        EdDSAEngine.digestInitSign(digest, privKey);
+        return EdDSAEngine.sign(digest, privKey, DOM2, ByteBuffer.wrap(ph));
+    }
+
+    /**
+     * Verifies a signature on a message that has already been hashed with SHA-512.
+     * Any data passed to update() is ignored and discarded.
+     *
+     * @param ph the SHA-512 hash of the message
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise
+     * @throws SignatureException if not initialized for verification, or
+     *         ph or the signature is the wrong length
+     */
+    public boolean verifyPrehash(byte[] ph, byte[] signature) throws SignatureException {
+        prehash.reset();
+        if (!(key instanceof EdDSAPublicKey))
+            throw new SignatureException("not initialized for verification");
+        if (ph.length != PREHASH_LENGTH)
+            throw new SignatureException("prehash length is wrong");
+        digest.reset();
+        return EdDSAEngine.verify(digest, (EdDSAPublicKey) key, DOM2,
+                new ByteBuffer[] { ByteBuffer.wrap(ph) }, signature);
+    }
+
+    /**
+     * @deprecated
+     */
+    @Override
+    protected void engineSetParameter(String param, Object value) {
+        throw new UnsupportedOperationException("engineSetParameter unsupported");
+    }
+
+    /**
+     * @deprecated
+     */
+    @Override
+    protected Object engineGetParameter(String param) {
+        throw new UnsupportedOperationException("engineSetParameter unsupported");
+    }
+}
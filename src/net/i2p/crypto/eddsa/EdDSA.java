@@ -0,0 +1,114 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SignatureException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stateless EdDSA signing and verification.
+ *<p>
+ * Unlike {@link EdDSAEngine}, these methods can be called concurrently from
+ * any number of threads without further synchronization, and do not go
+ * through the {@link java.security.Signature} provider machinery. Each
+ * thread keeps its own {@link MessageDigest} instances, which are reused
+ * across calls.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class EdDSA {
+    private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS =
+            new ThreadLocal<Map<String, MessageDigest>>() {
+        @Override
+        protected Map<String, MessageDigest> initialValue() {
+            return new HashMap<String, MessageDigest>();
+        }
+    };
+
+    private EdDSA() {}
+
+    /**
+     * @return this thread's digest for the key's hash algorithm, reset.
+     * @throws IllegalStateException if the hash algorithm is not available
+     */
+    static MessageDigest getDigest(EdDSAKey key) {
+        String algorithm = key.getParams().getHashAlgorithm();
+        Map<String, MessageDigest> digests = DIGESTS.get();
+        MessageDigest digest = digests.get(algorithm);
+        if (digest == null) {
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("cannot get required digest " + algorithm, e);
+            }
+            digests.put(algorithm, digest);
+        } else {
+            digest.reset();
+        }
+        return digest;
+    }
+
+    /**
+     * @param key the private key to sign with
+     * @param data the message to be signed
+     * @return the signature
+     */
+    public static byte[] sign(EdDSAPrivateKey key, byte[] data) {
+        return sign(key, data, 0, data.length);
+    }
+
+    /**
+     * @param key the private key to sign with
+     * @param data byte array containing the message to be signed
+     * @param off the start of the message inside data
+     * @param len the length of the message
+     * @return the signature
+     */
+    public static byte[] sign(EdDSAPrivateKey key, byte[] data, int off, int len) {
+        MessageDigest digest = getDigest(key);
+        EdDSAEngine.digestInitSign(digest, key);
+        return EdDSAEngine.sign(digest, key, null, ByteBuffer.wrap(data, off, len));
+    }
+
+    /**
+     * @param key the public key to verify with
+     * @param data the message that was signed
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise
+     */
+    public static boolean verify(EdDSAPublicKey key, byte[] data, byte[] signature) {
+        return verify(key, data, 0, data.length, signature);
+    }
+
+    /**
+     * @param key the public key to verify with
+     * @param data byte array containing the message that was signed
+     * @param off the start of the message inside data
+     * @param len the length of the message
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise, including
+     *         if the signature length is wrong
+     */
+    public static boolean verify(EdDSAPublicKey key, byte[] data, int off, int len, byte[] signature) {
+        MessageDigest digest = getDigest(key);
+        try {
+            return EdDSAEngine.verify(digest, key, null, new ByteBuffer[] { ByteBuffer.wrap(data, off, len) }, signature);
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+}
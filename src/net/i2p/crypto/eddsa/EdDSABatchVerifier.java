@@ -0,0 +1,251 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.ScalarOps;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+
+/**
+ * Verifies many EdDSA signatures at once.
+ *<p>
+ * Given $n$ signatures $(R_i, S_i)$ on messages $M_i$ under keys $A_i$, the
+ * batch is accepted if
+ * $$[8](\sum_i z_i R_i + \sum_i (z_i h_i) A_i - (\sum_i z_i S_i) B) = 0$$
+ * where $h_i = H(R_i,A_i,M_i)$ and the $z_i$ are random 128-bit scalars.
+ * The whole batch costs a single multi-scalar multiplication, which is
+ * considerably cheaper than $n$ separate verifications.
+ *</p><p>
+ * If the batch equation does not hold, each signature is checked on its
+ * own against the same cofactored equation $[8](R_i + h_i A_i - S_i B) = 0$,
+ * so the caller still learns which entries are bad. Whether an entry is
+ * accepted therefore never depends on the other entries in the batch.
+ *</p><p>
+ * Signatures with $S \ge l$ or a non-canonical encoding of $R$ are
+ * rejected before any of this, as {@link EdDSAEngine} does.
+ *</p><p>
+ * Note that the batch equation is cofactored, whereas {@link EdDSAEngine}
+ * checks the cofactorless equation $R = SB - hA$. The two only disagree on
+ * deliberately crafted signatures involving points of small order: such a
+ * signature is accepted here even though {@link EdDSAEngine} would reject
+ * it.
+ *</p><p>
+ * Instances are not thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public class EdDSABatchVerifier {
+    private final SecureRandom random;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private EdDSAParameterSpec params;
+
+    private static class Entry {
+        final EdDSAPublicKey key;
+        final byte[] message;
+        final byte[] signature;
+
+        Entry(EdDSAPublicKey key, byte[] message, byte[] signature) {
+            this.key = key;
+            this.message = message;
+            this.signature = signature;
+        }
+    }
+
+    public EdDSABatchVerifier() {
+        this(new SecureRandom());
+    }
+
+    /**
+     * @param random the source of the random scalars $z_i$.
+     */
+    public EdDSABatchVerifier(SecureRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Queues a signature for verification. The arrays are not copied, and
+     * must not be modified until {@link #verify()} has returned.
+     *
+     * @param key the public key the signature was made with
+     * @param message the message that was signed
+     * @param signature of the message
+     * @throws IllegalArgumentException if the key uses different parameters
+     *         to the keys already in the batch
+     */
+    public void add(EdDSAPublicKey key, byte[] message, byte[] signature) {
+        if (params == null)
+            params = key.getParams();
+        else if (!params.equals(key.getParams()))
+            throw new IllegalArgumentException("all keys in a batch must use the same parameters");
+        entries.add(new Entry(key, message, signature));
+    }
+
+    /**
+     * @return the number of signatures in the batch
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all signatures from the batch.
+     */
+    public void clear() {
+        entries.clear();
+        params = null;
+    }
+
+    /**
+     * Verifies all signatures in the batch.
+     *
+     * @return an array with one element per signature, in the order they were
+     *         added; true if that signature is valid, false otherwise
+     */
+    public boolean[] verify() {
+        final int n = entries.size();
+        final boolean[] result = new boolean[n];
+        if (n == 0)
+            return result;
+
+        final Curve curve = params.getCurve();
+        final ScalarOps sc = params.getScalarOps();
+        final int b = curve.getField().getb();
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(params.getHashAlgorithm());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("cannot get required digest " + params.getHashAlgorithm(), e);
+        }
+
+        // R_i and A_i for every well-formed entry, then -B
+        final GroupElement B = params.getB();
+        final GroupElement negB = GroupElement.p3(curve, B.getX().negate(), B.getY(), B.getZ(), B.getT().negate());
+        final GroupElement[] points = new GroupElement[2*n + 1];
+        final byte[][] scalars = new byte[2*n + 1][];
+        final byte[][] h = new byte[n][];
+        final byte[][] S = new byte[n][];
+        final int[] index = new int[n];
+        final byte[] zero = new byte[b/8];
+        byte[] s = zero;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            final Entry e = entries.get(i);
+            final byte[] sig = e.signature;
+            if (sig == null || sig.length != b/4)
+                continue;
+            final byte[] Sbyte = Arrays.copyOfRange(sig, b/8, b/4);
+            if (!EdDSAEngine.isReduced(sc, Sbyte))
+                continue;
+            final byte[] Rbyte = Arrays.copyOfRange(sig, 0, b/8);
+            final GroupElement R = decodeCanonical(curve, Rbyte);
+            if (R == null)
+                continue;
+
+            // h = H(Rbar,Abar,M) mod l
+            digest.update(Rbyte);
+            digest.update(e.key.getAbyte());
+            digest.update(e.message);
+            h[i] = sc.reduce(digest.digest());
+            S[i] = Sbyte;
+
+            final byte[] z = new byte[b/8];
+            do {
+                random.nextBytes(z);
+                Arrays.fill(z, 16, z.length, (byte) 0);
+            } while (isZero(z));
+
+            index[count/2] = i;
+            points[count] = R;
+            scalars[count++] = z;
+            points[count] = e.key.getA();
+            scalars[count++] = sc.multiplyAndAdd(z, h[i], zero);
+            s = sc.multiplyAndAdd(z, Sbyte, s);
+            // Malformed entries are never valid, the rest are until proven otherwise
+            result[i] = true;
+        }
+
+        if (count == 0)
+            return result;
+        final int m = count / 2;
+        points[count] = negB;
+        scalars[count++] = s;
+        if (isSmallOrder(GroupElement.multiScalarMultiplyVariableTime(
+                Arrays.copyOf(points, count), Arrays.copyOf(scalars, count))))
+            return result;
+
+        // At least one signature is bad, find out which with the same equation
+        final byte[] one = new byte[b/8];
+        one[0] = 1;
+        for (int j = 0; j < m; j++) {
+            final int i = index[j];
+            result[i] = isSmallOrder(GroupElement.multiScalarMultiplyVariableTime(
+                    new GroupElement[] { points[2*j], points[2*j + 1], negB },
+                    new byte[][] { one, h[i], S[i] }));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if $[8]P$ is the neutral element.
+     */
+    private static boolean isSmallOrder(GroupElement P) {
+        // Clear any small-order component
+        final GroupElement r = P.dbl().toP2().dbl().toP2().dbl().toP2();
+        return !r.getX().isNonZero() && !r.getY().subtract(r.getZ()).isNonZero();
+    }
+
+    /**
+     * Decodes a point, rejecting the non-canonical encodings that
+     * {@link EdDSAEngine} would never match when re-encoding R.
+     *
+     * @return the point in P3 representation, or null if s is not a
+     *         canonical encoding of a point on the curve.
+     */
+    private static GroupElement decodeCanonical(Curve curve, byte[] s) {
+        final GroupElement P;
+        try {
+            P = curve.createPoint(s, false);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // y must be fully reduced
+        final byte[] y = P.getY().toByteArray();
+        for (int i = 0; i < y.length - 1; i++) {
+            if (y[i] != s[i])
+                return null;
+        }
+        if (y[y.length - 1] != (s[s.length - 1] & 0x7f))
+            return null;
+        // -0 is not a valid encoding of x = 0
+        final FieldElement x = P.getX();
+        if (!x.isNonZero() && Utils.bit(s, curve.getField().getb() - 1) != 0)
+            return null;
+        return P;
+    }
+
+    private static boolean isZero(byte[] z) {
+        int acc = 0;
+        for (int i = 0; i < z.length; i++)
+            acc |= z[i];
+        return acc == 0;
+    }
+}
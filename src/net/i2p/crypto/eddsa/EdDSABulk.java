@@ -0,0 +1,384 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+/**
+ * Signs or verifies many messages, or generates many key pairs, in parallel.
+ *<p>
+ * The work is split into contiguous ranges, which are run as tasks on the
+ * given {@link ExecutorService}. Each item is handled by {@link EdDSA} or
+ * {@link EdDSAPreparedPrivateKey}, so no {@link EdDSAEngine} is created
+ * per item.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class EdDSABulk {
+    /**
+     * Number of tasks created per available processor, so that uneven
+     * message lengths still spread well across the workers.
+     */
+    private static final int TASKS_PER_PROCESSOR = 4;
+
+    /**
+     * Maximum number of signatures handed to
+     * {@link EdDSAEngine#verify(MessageDigest, EdDSAPublicKey[], byte[][], byte[][], boolean[], int, int)}
+     * at once.
+     */
+    private static final int VERIFY_GROUP_SIZE = 64;
+
+    /**
+     * Maximum number of messages handed to
+     * {@link EdDSAPreparedPrivateKey#signAll(byte[][])} at once.
+     */
+    private static final int SIGN_GROUP_SIZE = 64;
+
+    /**
+     * Maximum number of public keys encoded together by
+     * {@link GroupElement#toByteArray(GroupElement[])}.
+     */
+    private static final int KEYGEN_GROUP_SIZE = 64;
+
+    private EdDSABulk() {}
+
+    /**
+     * Keys generated by
+     * {@link EdDSABulk#generateKeys(int, EdDSAParameterSpec, SecureRandom, ExecutorService)},
+     * without a key object per key.
+     */
+    public static final class GeneratedKeys {
+        private final int keyLength;
+        private final byte[] seeds;
+        private final byte[] publicKeys;
+
+        GeneratedKeys(int keyLength, byte[] seeds, byte[] publicKeys) {
+            this.keyLength = keyLength;
+            this.seeds = seeds;
+            this.publicKeys = publicKeys;
+        }
+
+        /**
+         * @return the number of keys.
+         */
+        public int size() {
+            return seeds.length / keyLength;
+        }
+
+        /**
+         * @return the length in bytes of each seed and each public key.
+         */
+        public int getKeyLength() {
+            return keyLength;
+        }
+
+        /**
+         * @return the seeds, the one of key i at offset i * {@link #getKeyLength()}.
+         */
+        public byte[] getSeeds() {
+            return seeds;
+        }
+
+        /**
+         * @return the encoded public keys, the one of key i at offset i * {@link #getKeyLength()}.
+         */
+        public byte[] getPublicKeys() {
+            return publicKeys;
+        }
+    }
+
+    /**
+     * A task that processes the items in [from, to), in groups of at most
+     * groupSize items.
+     */
+    private static abstract class Range implements Callable<Void> {
+        final int from;
+        final int to;
+        final int groupSize;
+
+        Range(int from, int to, int groupSize) {
+            this.from = from;
+            this.to = to;
+            this.groupSize = groupSize;
+        }
+
+        /**
+         * Processes the items in [i, j).
+         */
+        abstract void process(int i, int j);
+
+        @Override
+        public final Void call() {
+            for (int i = from; i < to; i += groupSize)
+                process(i, Math.min(to, i + groupSize));
+            return null;
+        }
+    }
+
+    /**
+     * Interface for creating tasks over a range of items.
+     */
+    private interface RangeFactory {
+        Range create(int from, int to);
+    }
+
+    /**
+     * Splits [0, n) into ranges, runs them on the executor and waits for all of them.
+     */
+    private static void run(int n, ExecutorService executor, RangeFactory factory) throws InterruptedException {
+        if (n == 0)
+            return;
+        int tasks = Math.min(n, TASKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks);
+        try {
+            for (int t = 0; t < tasks; t++) {
+                futures.add(executor.submit(factory.create(
+                        (int) ((long) n * t / tasks), (int) ((long) n * (t + 1) / tasks))));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            for (Future<Void> future : futures)
+                future.cancel(true);
+        }
+    }
+
+    /**
+     * Signs every message with the same key.
+     *
+     * @param messages the messages to be signed
+     * @param key the private key to sign with
+     * @param executor the executor to run the work on
+     * @return the signatures, in the same order as the messages
+     * @throws InterruptedException if interrupted while waiting for the work to finish
+     */
+    public static List<byte[]> signAll(final List<byte[]> messages, final EdDSAPrivateKey key,
+                                       ExecutorService executor) throws InterruptedException {
+        final byte[][] data = messages.toArray(new byte[messages.size()][]);
+        final byte[][] sigs = new byte[data.length][];
+        final EdDSAPreparedPrivateKey prepared = new EdDSAPreparedPrivateKey(key);
+        run(data.length, executor, new RangeFactory() {
+            @Override
+            public Range create(int from, int to) {
+                return new Range(from, to, SIGN_GROUP_SIZE) {
+                    @Override
+                    void process(int i, int j) {
+                        // One field inversion for the whole group
+                        byte[][] group = prepared.signAll(Arrays.copyOfRange(data, i, j));
+                        System.arraycopy(group, 0, sigs, i, j - i);
+                    }
+                };
+            }
+        });
+        return Arrays.asList(sigs);
+    }
+
+    /**
+     * Verifies every signature against the same key.
+     *
+     * @param messages the messages that were signed
+     * @param signatures the signatures, in the same order as the messages
+     * @param key the public key to verify with
+     * @param executor the executor to run the work on
+     * @return a BitSet with bit i set if signature i is valid
+     * @throws IllegalArgumentException if the lists are of different lengths
+     * @throws InterruptedException if interrupted while waiting for the work to finish
+     */
+    public static BitSet verifyAll(List<byte[]> messages, List<byte[]> signatures, EdDSAPublicKey key,
+                                   ExecutorService executor) throws InterruptedException {
+        return verifyAll(messages, signatures, Collections.nCopies(messages.size(), key), executor);
+    }
+
+    /**
+     * Verifies every signature against its own key.
+     *
+     * @param messages the messages that were signed
+     * @param signatures the signatures, in the same order as the messages
+     * @param keys the public keys, in the same order as the messages
+     * @param executor the executor to run the work on
+     * @return a BitSet with bit i set if signature i is valid
+     * @throws IllegalArgumentException if the lists are of different lengths
+     * @throws InterruptedException if interrupted while waiting for the work to finish
+     */
+    public static BitSet verifyAll(List<byte[]> messages, List<byte[]> signatures,
+                                   List<EdDSAPublicKey> keys,
+                                   ExecutorService executor) throws InterruptedException {
+        if (messages.size() != signatures.size() || messages.size() != keys.size())
+            throw new IllegalArgumentException("messages, signatures and keys must have the same length");
+        final byte[][] data = messages.toArray(new byte[messages.size()][]);
+        final byte[][] sigs = signatures.toArray(new byte[signatures.size()][]);
+        final EdDSAPublicKey[] vKeys = keys.toArray(new EdDSAPublicKey[keys.size()]);
+        final boolean[] valid = new boolean[data.length];
+        run(data.length, executor, new RangeFactory() {
+            @Override
+            public Range create(int from, int to) {
+                return new Range(from, to, VERIFY_GROUP_SIZE) {
+                    @Override
+                    void process(int i, int j) {
+                        // Signatures under keys with the same parameters are
+                        // verified together, see Ed25519LaneEngine
+                        while (i < j) {
+                            int k = i + 1;
+                            while (k < j && vKeys[k].getParams() == vKeys[i].getParams())
+                                k++;
+                            if (k - i == 1)
+                                valid[i] = EdDSA.verify(vKeys[i], data[i], sigs[i]);
+                            else
+                                EdDSAEngine.verify(EdDSA.getDigest(vKeys[i]), vKeys, data, sigs, valid, i, k);
+                            i = k;
+                        }
+                    }
+                };
+            }
+        });
+
+        BitSet result = new BitSet(valid.length);
+        for (int i = 0; i < valid.length; i++) {
+            if (valid[i])
+                result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Generates key pairs.
+     *
+     * @param n the number of key pairs
+     * @param params the parameters of the keys
+     * @param random the source of the seeds
+     * @param executor the executor to run the work on
+     * @return the key pairs
+     * @throws IllegalArgumentException if n is negative, or too large for
+     *         all the seeds to fit in one array
+     * @throws InterruptedException if interrupted while waiting for the work to finish
+     */
+    public static List<KeyPair> generateKeyPairs(int n, EdDSAParameterSpec params, SecureRandom random,
+                                                 ExecutorService executor) throws InterruptedException {
+        int len = keyLength(n, params);
+        KeyPair[] pairs = new KeyPair[n];
+        generate(n, len, params, random, executor, null, pairs);
+        return Arrays.asList(pairs);
+    }
+
+    /**
+     * Generates keys, returning only their seeds and encoded public keys.
+     * Each seed can be turned into a private key with
+     * {@link EdDSAPrivateKeySpec#EdDSAPrivateKeySpec(byte[], EdDSAParameterSpec)}.
+     *
+     * @param n the number of keys
+     * @param params the parameters of the keys
+     * @param random the source of the seeds
+     * @param executor the executor to run the work on
+     * @return the keys
+     * @throws IllegalArgumentException if n is negative, or too large for
+     *         all the seeds to fit in one array
+     * @throws InterruptedException if interrupted while waiting for the work to finish
+     */
+    public static GeneratedKeys generateKeys(int n, EdDSAParameterSpec params, SecureRandom random,
+                                             ExecutorService executor) throws InterruptedException {
+        int len = keyLength(n, params);
+        byte[] publicKeys = new byte[n * len];
+        byte[] seeds = generate(n, len, params, random, executor, publicKeys, null);
+        return new GeneratedKeys(len, seeds, publicKeys);
+    }
+
+    /**
+     * @param n the number of keys
+     * @return the length in bytes of each seed and each public key.
+     * @throws IllegalArgumentException if n is negative, or if n keys do not fit in one array
+     */
+    private static int keyLength(int n, EdDSAParameterSpec params) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative");
+        int len = params.getCurve().getField().getb()/8;
+        if (n > Integer.MAX_VALUE / len)
+            throw new IllegalArgumentException("n must be at most " + Integer.MAX_VALUE / len);
+        return len;
+    }
+
+    /**
+     * Draws all the seeds at once, then derives the keys in parallel.
+     *
+     * @param publicKeys filled with the encoded public keys, or null
+     * @param pairs filled with the key pairs, or null
+     * @return the seeds
+     */
+    private static byte[] generate(int n, final int len, final EdDSAParameterSpec params, SecureRandom random,
+                                   ExecutorService executor, final byte[] publicKeys,
+                                   final KeyPair[] pairs) throws InterruptedException {
+        final byte[] seeds = new byte[n * len];
+        random.nextBytes(seeds);
+        run(n, executor, new RangeFactory() {
+            @Override
+            public Range create(int from, int to) {
+                return new Range(from, to, KEYGEN_GROUP_SIZE) {
+                    @Override
+                    void process(int i, int j) {
+                        deriveKeys(params, len, seeds, i, j, publicKeys, pairs);
+                    }
+                };
+            }
+        });
+        return seeds;
+    }
+
+    /**
+     * Derives the keys in [from, to) from their seeds, encoding all their
+     * public keys with one field inversion.
+     */
+    private static void deriveKeys(EdDSAParameterSpec params, int len, byte[] seeds, int from, int to,
+                                   byte[] publicKeys, KeyPair[] pairs) {
+        EdDSAPrivateKeySpec[] specs = new EdDSAPrivateKeySpec[to - from];
+        GroupElement[] A = new GroupElement[to - from];
+        for (int i = from; i < to; i++) {
+            specs[i - from] = new EdDSAPrivateKeySpec(Arrays.copyOfRange(seeds, i * len, (i + 1) * len), params);
+            A[i - from] = specs[i - from].getA();
+        }
+
+        byte[][] Abyte = GroupElement.toByteArray(A);
+        for (int i = from; i < to; i++) {
+            if (publicKeys != null)
+                System.arraycopy(Abyte[i - from], 0, publicKeys, i * len, len);
+            if (pairs != null)
+                pairs[i] = new KeyPair(
+                        new EdDSAPublicKey(new EdDSAPublicKeySpec(A[i - from], params), Abyte[i - from]),
+                        new EdDSAPrivateKey(specs[i - from], Abyte[i - from].clone()));
+        }
+    }
+}
@@ -11,13 +11,17 @@
  */
 package net.i2p.crypto.eddsa;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.ProviderException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
@@ -29,6 +33,10 @@ import java.util.Arrays;
 import net.i2p.crypto.eddsa.math.Curve;
 import net.i2p.crypto.eddsa.math.GroupElement;
 import net.i2p.crypto.eddsa.math.ScalarOps;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519ScalarOps;
+import net.i2p.crypto.eddsa.spec.EdDSABufferSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAExpectedSignatureSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 import sun.security.x509.X509Key;
 
 /**
@@ -38,7 +46,9 @@ import sun.security.x509.X509Key;
  * the Java Signature API, as one or more update() methods must be
  * called before sign() or verify(). Using the standard API,
  * this implementation must copy and buffer all data passed in
- * via update().
+ * via update(). By default the data is kept in memory; to move large
+ * messages to a temporary file instead, call
+ * setParameter(new EdDSABufferSpec(threshold)) before update().
  *</p><p>
  * This implementation offers two ways to avoid this copying,
  * but only if all data to be signed or verified is available
@@ -63,6 +73,16 @@ import sun.security.x509.X509Key;
  *         just call signOneShot() or verifyOneShot() again.
  *</li></ol>
  *
+ *<p>
+ * When verifying, if the signature is known before the data, the data
+ * can instead be hashed as it is passed in, without buffering it:
+ *</p><ol>
+ *<li>Call initVerify() as usual.
+ *</li><li>Call setParameter(new EdDSAExpectedSignatureSpec(signature))
+ *</li><li>Call update() as many times as needed.
+ *</li><li>Call verify(signature) with the same signature.
+ *</li></ol>
+ *
  * @author str4d
  *
  */
@@ -70,12 +90,13 @@ public final class EdDSAEngine extends Signature {
     public static final String SIGNATURE_ALGORITHM = "NONEwithEdDSA";
 
     private MessageDigest digest;
-    private ByteArrayOutputStream baos;
+    private MessageBuffer buffer;
+    private long bufferThreshold = DEFAULT_BUFFER_THRESHOLD;
+    private File bufferDirectory;
     private EdDSAKey key;
     private boolean oneShotMode;
-    private byte[] oneShotBytes;
-    private int oneShotOffset;
-    private int oneShotLength;
+    private ByteBuffer[] oneShotMessage;
+    private byte[] expectedSignature;
 
     /**
      *  To efficiently sign or verify data in one shot, pass this to setParameters()
@@ -88,6 +109,17 @@ public final class EdDSAEngine extends Signature {
 
     private static class OneShotSpec implements AlgorithmParameterSpec {}
 
+    /**
+     * Files are memory-mapped in chunks of this many bytes.
+     */
+    private static final long MAP_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * By default, messages are only moved out of memory once they are too
+     * large to fit in an array.
+     */
+    private static final long DEFAULT_BUFFER_THRESHOLD = Integer.MAX_VALUE - 8;
+
     /**
      * No specific EdDSA-internal hash requested, allows any EdDSA key.
      */
@@ -107,10 +139,11 @@ public final class EdDSAEngine extends Signature {
     private void reset() {
         if (digest != null)
             digest.reset();
-        if (baos != null)
-            baos.reset();
+        if (buffer != null)
+            buffer.reset();
         oneShotMode = false;
-        oneShotBytes = null;
+        oneShotMessage = null;
+        expectedSignature = null;
     }
 
     @Override
@@ -136,6 +169,10 @@ public final class EdDSAEngine extends Signature {
     }
 
     private void digestInitSign(EdDSAPrivateKey privKey) {
+        digestInitSign(digest, privKey);
+    }
+
+    static void digestInitSign(MessageDigest digest, EdDSAPrivateKey privKey) {
         // Preparing for hash
         // r = H(h_b,...,h_2b-1,M)
         int b = privKey.getParams().getCurve().getField().getb();
@@ -177,11 +214,17 @@ public final class EdDSAEngine extends Signature {
      */
     @Override
     protected void engineUpdate(byte b) throws SignatureException {
+        if (expectedSignature != null) {
+            digest.update(b);
+            return;
+        }
         if (oneShotMode)
             throw new SignatureException("unsupported in one-shot mode");
-        if (baos == null)
-            baos = new ByteArrayOutputStream(256);
-        baos.write(b);
+        try {
+            getBuffer().write(b);
+        } catch (IOException e) {
+            throw new SignatureException("cannot buffer message", e);
+        }
     }
 
     /**
@@ -190,19 +233,116 @@ public final class EdDSAEngine extends Signature {
     @Override
     protected void engineUpdate(byte[] b, int off, int len)
             throws SignatureException {
-        if (oneShotMode) {
-            if (oneShotBytes != null)
+        if (expectedSignature != null) {
+            digest.update(b, off, len);
+        } else if (oneShotMode) {
+            if (oneShotMessage != null)
                 throw new SignatureException("update() already called");
-            oneShotBytes = b;
-            oneShotOffset = off;
-            oneShotLength = len;
+            oneShotMessage = new ByteBuffer[] { ByteBuffer.wrap(b, off, len) };
         } else {
-            if (baos == null)
-                baos = new ByteArrayOutputStream(256);
-            baos.write(b, off, len);
+            try {
+                getBuffer().write(b, off, len);
+            } catch (IOException e) {
+                throw new SignatureException("cannot buffer message", e);
+            }
         }
     }
 
+    /**
+     * In one-shot mode the buffer is not copied; its contents must not be
+     * modified until sign() or verify() has been called.
+     *
+     * @throws ProviderException if one-shot rules are violated, or the
+     *         message cannot be buffered
+     */
+    @Override
+    protected void engineUpdate(ByteBuffer input) {
+        if (expectedSignature != null) {
+            digest.update(input);
+        } else if (oneShotMode) {
+            if (oneShotMessage != null)
+                throw new ProviderException("update() already called");
+            oneShotMessage = new ByteBuffer[] { input.duplicate() };
+            input.position(input.limit());
+        } else {
+            MessageBuffer buffer = getBuffer();
+            try {
+                if (input.hasArray()) {
+                    buffer.write(input.array(), input.arrayOffset() + input.position(), input.remaining());
+                    input.position(input.limit());
+                } else {
+                    byte[] tmp = new byte[Math.min(input.remaining(), 4096)];
+                    while (input.hasRemaining()) {
+                        int len = Math.min(input.remaining(), tmp.length);
+                        input.get(tmp, 0, len);
+                        buffer.write(tmp, 0, len);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ProviderException("cannot buffer message", e);
+            }
+        }
+    }
+
+    private MessageBuffer getBuffer() {
+        if (buffer == null)
+            buffer = new MessageBuffer(bufferThreshold, bufferDirectory);
+        return buffer;
+    }
+
+    private boolean isBuffering() {
+        return buffer != null && buffer.size() > 0;
+    }
+
+    /**
+     * @return the message passed in via update()
+     * @throws SignatureException if in one-shot mode and update() not called
+     */
+    private ByteBuffer[] getMessage() throws SignatureException {
+        if (oneShotMode) {
+            if (oneShotMessage == null)
+                throw new SignatureException("update() not called first");
+            return oneShotMessage;
+        } else {
+            if (buffer == null)
+                return new ByteBuffer[0];
+            try {
+                // Not copied, the buffer is reset once the message has been used
+                return buffer.segments();
+            } catch (IOException e) {
+                throw new SignatureException("cannot read buffered message", e);
+            }
+        }
+    }
+
+    /**
+     * Starts a one-shot sign or verify of the given message segments.
+     *
+     * @throws SignatureException if update() already called
+     */
+    private void setOneShotMessage(ByteBuffer[] data) throws SignatureException {
+        if (oneShotMessage != null || isBuffering())
+            throw new SignatureException("update() already called");
+        if (expectedSignature != null) {
+            // Already streaming, no need to keep the segments
+            update(digest, data);
+            return;
+        }
+        oneShotMode = true;
+        oneShotMessage = new ByteBuffer[data.length];
+        for (int i = 0; i < data.length; i++)
+            oneShotMessage[i] = data[i].duplicate();
+    }
+
+    /**
+     * Hashes the remaining bytes of each segment, leaving their positions
+     * untouched so that they can be hashed again.
+     */
+    private static void update(MessageDigest digest, ByteBuffer[] message) {
+        for (ByteBuffer segment : message)
+            digest.update(segment.duplicate());
+    }
+
     @Override
     protected byte[] engineSign() throws SignatureException {
         try {
@@ -217,45 +357,75 @@ public final class EdDSAEngine extends Signature {
     }
 
     private byte[] x_engineSign() throws SignatureException {
-        Curve curve = key.getParams().getCurve();
-        ScalarOps sc = key.getParams().getScalarOps();
-        byte[] a = ((EdDSAPrivateKey) key).geta();
+        return sign(digest, (EdDSAPrivateKey) key, null, getMessage());
+    }
 
-        byte[] message;
-        int offset, length;
-        if (oneShotMode) {
-            if (oneShotBytes == null)
-                throw new SignatureException("update() not called first");
-            message = oneShotBytes;
-            offset = oneShotOffset;
-            length = oneShotLength;
-        } else {
-            if (baos == null)
-                message = new byte[0];
-            else
-                message = baos.toByteArray();
-            offset = 0;
-            length = message.length;
-        }
+    /**
+     * Signs a message. The digest must already contain dom (if any) followed
+     * by the prefix added by {@link #digestInitSign(MessageDigest, EdDSAPrivateKey)},
+     * and is left reset on return.
+     *
+     * @param dom the domain separation prefix, or null for none.
+     */
+    static byte[] sign(MessageDigest digest, EdDSAPrivateKey key, byte[] dom, ByteBuffer... message) {
+        return sign(digest, key, null, dom, message);
+    }
+
+    /**
+     * As {@link #sign(MessageDigest, EdDSAPrivateKey, byte[], ByteBuffer...)}.
+     *
+     * @param aLimbs the scalar a, split by {@link Ed25519ScalarOps#toLimbs(byte[])},
+     *               or null to use {@link ScalarOps#multiplyAndAdd(byte[], byte[], byte[])}.
+     */
+    static byte[] sign(MessageDigest digest, EdDSAPrivateKey key, long[] aLimbs, byte[] dom, ByteBuffer... message) {
+        byte[] r = nonce(digest, key, message);
+
+        // R = rB
+        GroupElement R = key.getParams().getB().scalarMultiply(r);
+        return finishSign(digest, key, aLimbs, dom, r, R.toByteArray(), message);
+    }
+
+    /**
+     * Computes the nonce of a signature. The digest must be prepared as for
+     * {@link #sign(MessageDigest, EdDSAPrivateKey, long[], byte[], ByteBuffer...)},
+     * and is left reset on return.
+     *
+     * @return $r = H(h_b,\dots,h_{2b-1},M) \bmod l$
+     */
+    static byte[] nonce(MessageDigest digest, EdDSAPrivateKey key, ByteBuffer... message) {
         // r = H(h_b,...,h_2b-1,M)
-        digest.update(message, offset, length);
+        update(digest, message);
         byte[] r = digest.digest();
 
         // r mod l
         // Reduces r from 64 bytes to 32 bytes
-        r = sc.reduce(r);
+        return key.getParams().getScalarOps().reduce(r);
+    }
 
-        // R = rB
-        GroupElement R = key.getParams().getB().scalarMultiply(r);
-        byte[] Rbyte = R.toByteArray();
+    /**
+     * Completes a signature, given its nonce and encoded $R = rB$. The digest
+     * must be reset, and is left reset on return.
+     *
+     * @param r the nonce from {@link #nonce(MessageDigest, EdDSAPrivateKey, ByteBuffer...)}.
+     * @param Rbyte the encoding of $R = rB$.
+     * @return the signature $R+S$
+     */
+    static byte[] finishSign(MessageDigest digest, EdDSAPrivateKey key, long[] aLimbs, byte[] dom,
+                             byte[] r, byte[] Rbyte, ByteBuffer... message) {
+        Curve curve = key.getParams().getCurve();
+        ScalarOps sc = key.getParams().getScalarOps();
 
-        // S = (r + H(Rbar,Abar,M)*a) mod l
+        // S = (r + H(dom,Rbar,Abar,M)*a) mod l
+        if (dom != null)
+            digest.update(dom);
         digest.update(Rbyte);
-        digest.update(((EdDSAPrivateKey) key).getAbyte());
-        digest.update(message, offset, length);
+        digest.update(key.getAbyte());
+        update(digest, message);
         byte[] h = digest.digest();
         h = sc.reduce(h);
-        byte[] S = sc.multiplyAndAdd(h, a, r);
+        byte[] S = aLimbs != null
+                ? ((Ed25519ScalarOps) sc).multiplyAndAdd(h, aLimbs, r)
+                : sc.multiplyAndAdd(h, key.geta(), r);
 
         // R+S
         int b = curve.getField().getb();
@@ -274,42 +444,113 @@ public final class EdDSAEngine extends Signature {
     }
 
     private boolean x_engineVerify(byte[] sigBytes) throws SignatureException {
+        if (expectedSignature != null) {
+            if (!Arrays.equals(sigBytes, expectedSignature))
+                throw new SignatureException("signature does not match expected signature");
+            // The message has already been hashed
+            return finishVerify((EdDSAPublicKey) key, digest.digest(), sigBytes);
+        }
+        return verify(digest, (EdDSAPublicKey) key, null, getMessage(), sigBytes);
+    }
+
+    /**
+     * Verifies a signature on a message. The digest must be reset, and is
+     * left reset on return.
+     *
+     * @param dom the domain separation prefix, or null for none.
+     * @throws SignatureException if the signature length is wrong
+     */
+    static boolean verify(MessageDigest digest, EdDSAPublicKey key, byte[] dom,
+                          ByteBuffer[] message, byte[] sigBytes) throws SignatureException {
         Curve curve = key.getParams().getCurve();
         int b = curve.getField().getb();
         if (sigBytes.length != b/4)
             throw new SignatureException("signature length is wrong");
 
         // R is first b/8 bytes of sigBytes, S is second b/8 bytes
+        if (dom != null)
+            digest.update(dom);
         digest.update(sigBytes, 0, b/8);
-        digest.update(((EdDSAPublicKey) key).getAbyte());
-        // h = H(Rbar,Abar,M)
-        byte[] message;
-        int offset, length;
-        if (oneShotMode) {
-            if (oneShotBytes == null)
-                throw new SignatureException("update() not called first");
-            message = oneShotBytes;
-            offset = oneShotOffset;
-            length = oneShotLength;
-        } else {
-            if (baos == null)
-                message = new byte[0];
-            else
-                message = baos.toByteArray();
-            offset = 0;
-            length = message.length;
-        }
-        digest.update(message, offset, length);
-        byte[] h = digest.digest();
+        digest.update(key.getAbyte());
+        // h = H(dom,Rbar,Abar,M)
+        update(digest, message);
+        return finishVerify(key, digest.digest(), sigBytes);
+    }
+
+    /**
+     * @param h $H(Rbar,Abar,M)$
+     */
+    private static boolean finishVerify(EdDSAPublicKey key, byte[] h, byte[] sigBytes) {
+        int b = key.getParams().getCurve().getField().getb();
+
+        byte[] Sbyte = Arrays.copyOfRange(sigBytes, b/8, b/4);
+        if (!isReduced(key.getParams().getScalarOps(), Sbyte))
+            return false;
 
         // h mod l
         h = key.getParams().getScalarOps().reduce(h);
 
-        byte[] Sbyte = Arrays.copyOfRange(sigBytes, b/8, b/4);
         // R = SB - H(Rbar,Abar,M)A
         GroupElement R = key.getParams().getB().doubleScalarMultiplyVariableTime(
-                ((EdDSAPublicKey) key).getNegativeA(), h, Sbyte);
+                key.getNegativeAForVerify(), h, Sbyte);
+        return matchesR(R, sigBytes);
+    }
+
+    /**
+     * Verifies several signatures, evaluating their double scalar
+     * multiplications together, see
+     * {@link GroupElement#doubleScalarMultiplyVariableTime(GroupElement[], byte[][], byte[][])}.
+     * All keys in [from, to) must have the same parameters. The digest must
+     * be reset, and is left reset on return.
+     *
+     * @param valid set to true for each valid signature in [from, to);
+     *              entries with a signature of the wrong length or with
+     *              $S \ge l$ are left false.
+     */
+    static void verify(MessageDigest digest, EdDSAPublicKey[] keys, byte[][] messages,
+                       byte[][] sigs, boolean[] valid, int from, int to) {
+        EdDSAParameterSpec params = keys[from].getParams();
+        int b = params.getCurve().getField().getb();
+        int n = 0;
+        int[] index = new int[to - from];
+        GroupElement[] negA = new GroupElement[to - from];
+        byte[][] h = new byte[to - from][];
+        byte[][] S = new byte[to - from][];
+        for (int i = from; i < to; i++) {
+            if (sigs[i].length != b/4)
+                continue;
+            S[n] = Arrays.copyOfRange(sigs[i], b/8, b/4);
+            if (!isReduced(params.getScalarOps(), S[n]))
+                continue;
+            digest.update(sigs[i], 0, b/8);
+            digest.update(keys[i].getAbyte());
+            digest.update(messages[i]);
+            index[n] = i;
+            negA[n] = keys[i].getNegativeAForVerify();
+            h[n] = params.getScalarOps().reduce(digest.digest());
+            n++;
+        }
+
+        GroupElement[] R = params.getB().doubleScalarMultiplyVariableTime(
+                Arrays.copyOf(negA, n), Arrays.copyOf(h, n), Arrays.copyOf(S, n));
+        for (int j = 0; j < n; j++) {
+            valid[index[j]] = matchesR(R[j], sigs[index[j]]);
+        }
+    }
 
+    /**
+     * Checks that $S \lt l$, as required by RFC 8032 section 5.1.7. Any
+     * larger $S$ is rejected, so the result of verification does not depend
+     * on how the scalar multiplication handles unreduced scalars.
+     *
+     * @param S the scalar, in $b/8$ bytes
+     * @return true if S is reduced mod $l$
+     */
+    static boolean isReduced(ScalarOps sc, byte[] S) {
+        return Arrays.equals(sc.reduce(Arrays.copyOf(S, 2 * S.length)), S);
+    }
+
+    private static boolean matchesR(GroupElement R, byte[] sigBytes) {
         // Variable time. This should be okay, because there are no secret
         // values used anywhere in verification.
         byte[] Rcalc = R.toByteArray();
@@ -364,6 +605,73 @@ public final class EdDSAEngine extends Signature {
         return sign();
     }
 
+    /**
+     *  To efficiently sign a message that is split across several buffers,
+     *  use this method, which will hash the remaining bytes of each buffer
+     *  in place, in order, without copying them.
+     *<p>
+     *  The positions of the buffers are not modified.
+     *</p>
+     *
+     * @param data the buffers containing the message to be signed
+     * @return the signature
+     * @throws SignatureException if update() already called
+     */
+    public byte[] signOneShot(ByteBuffer... data) throws SignatureException {
+        setOneShotMessage(data);
+        return sign();
+    }
+
+    /**
+     *  To efficiently sign the contents of a file, use this method, which
+     *  will memory-map the file and hash it directly from the page cache.
+     *
+     * @param file the file containing the message to be signed
+     * @return the signature
+     * @throws SignatureException if update() already called
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public byte[] signOneShot(File file) throws SignatureException, IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return signOneShot(raf.getChannel());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     *  To efficiently sign the contents of a file, use this method, which
+     *  will memory-map the file and hash it directly from the page cache.
+     *<p>
+     *  The whole file is signed, regardless of the channel's position, which
+     *  is not modified. The file must not be modified until this returns.
+     *</p>
+     *
+     * @param channel the channel of the file containing the message to be signed
+     * @return the signature
+     * @throws SignatureException if update() already called
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public byte[] signOneShot(FileChannel channel) throws SignatureException, IOException {
+        return signOneShot(map(channel));
+    }
+
+    /**
+     * Maps a file read-only in chunks of at most {@link #MAP_CHUNK_SIZE} bytes.
+     */
+    static ByteBuffer[] map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = (int) ((size + MAP_CHUNK_SIZE - 1) / MAP_CHUNK_SIZE);
+        ByteBuffer[] segments = new ByteBuffer[chunks];
+        for (int i = 0; i < chunks; i++) {
+            long position = (long) i * MAP_CHUNK_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                      Math.min(MAP_CHUNK_SIZE, size - position));
+        }
+        return segments;
+    }
+
     /**
      *  To efficiently verify all the data in one shot, if it is available,
      *  use this method, which will avoid copying the data.
@@ -458,6 +766,61 @@ public final class EdDSAEngine extends Signature {
         return verify(signature, sigoff, siglen);
     }
 
+    /**
+     *  To efficiently verify a message that is split across several buffers,
+     *  use this method, which will hash the remaining bytes of each buffer
+     *  in place, in order, without copying them.
+     *<p>
+     *  The positions of the buffers are not modified.
+     *</p>
+     *
+     * @param data the buffers containing the message that was signed
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise
+     * @throws SignatureException if update() already called
+     */
+    public boolean verifyOneShot(ByteBuffer[] data, byte[] signature) throws SignatureException {
+        setOneShotMessage(data);
+        return verify(signature);
+    }
+
+    /**
+     *  To efficiently verify the contents of a file, use this method, which
+     *  will memory-map the file and hash it directly from the page cache.
+     *
+     * @param file the file containing the message that was signed
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise
+     * @throws SignatureException if update() already called
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public boolean verifyOneShot(File file, byte[] signature) throws SignatureException, IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return verifyOneShot(raf.getChannel(), signature);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     *  To efficiently verify the contents of a file, use this method, which
+     *  will memory-map the file and hash it directly from the page cache.
+     *<p>
+     *  The whole file is verified, regardless of the channel's position,
+     *  which is not modified. The file must not be modified until this returns.
+     *</p>
+     *
+     * @param channel the channel of the file containing the message that was signed
+     * @param signature of the message
+     * @return true if the signature is valid, false otherwise
+     * @throws SignatureException if update() already called
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public boolean verifyOneShot(FileChannel channel, byte[] signature) throws SignatureException, IOException {
+        return verifyOneShot(map(channel), signature);
+    }
+
     /**
      * @throws InvalidAlgorithmParameterException if spec is ONE_SHOT_MODE and update() already called
      * @see #ONE_SHOT_MODE
@@ -465,9 +828,34 @@ public final class EdDSAEngine extends Signature {
     @Override
     protected void engineSetParameter(AlgorithmParameterSpec spec) throws InvalidAlgorithmParameterException {
         if (spec.equals(ONE_SHOT_MODE)) {
-            if (oneShotBytes != null || (baos != null && baos.size() > 0))
+            if (oneShotMessage != null || isBuffering())
                 throw new InvalidAlgorithmParameterException("update() already called");
+            if (expectedSignature != null)
+                throw new InvalidAlgorithmParameterException("cannot be combined with an expected signature");
             oneShotMode = true;
+        } else if (spec instanceof EdDSAExpectedSignatureSpec) {
+            if (!(key instanceof EdDSAPublicKey))
+                throw new InvalidAlgorithmParameterException("expected signature requires initVerify()");
+            if (oneShotMessage != null || isBuffering() || expectedSignature != null)
+                throw new InvalidAlgorithmParameterException("update() already called");
+            if (oneShotMode)
+                throw new InvalidAlgorithmParameterException("cannot be combined with ONE_SHOT_MODE");
+            byte[] sig = ((EdDSAExpectedSignatureSpec) spec).getSignature();
+            int b = key.getParams().getCurve().getField().getb();
+            if (sig.length != b/4)
+                throw new InvalidAlgorithmParameterException("signature length is wrong");
+            expectedSignature = sig;
+            // R is first b/8 bytes of the signature
+            digest.update(sig, 0, b/8);
+            digest.update(((EdDSAPublicKey) key).getAbyte());
+        } else if (spec instanceof EdDSABufferSpec) {
+            if (oneShotMessage != null || isBuffering())
+                throw new InvalidAlgorithmParameterException("update() already called");
+            EdDSABufferSpec bufferSpec = (EdDSABufferSpec) spec;
+            // No larger than an array can hold, or it would never spill
+            bufferThreshold = Math.min(bufferSpec.getMemoryThreshold(), DEFAULT_BUFFER_THRESHOLD);
+            bufferDirectory = bufferSpec.getDirectory();
+            buffer = null;
         } else {
             super.engineSetParameter(spec);
         }
@@ -0,0 +1,132 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+
+import net.i2p.crypto.eddsa.math.GroupElement;
+
+/**
+ * Controls which public keys get a larger precomputed table for verification.
+ *<p>
+ * By default, verification uses a table of 8 multiples of $-A$. Once an
+ * {@link EdDSAPublicKey} has been used to verify
+ * {@link #getPromotionThreshold()} signatures, it is promoted to a table of
+ * 64 multiples, which needs fewer point additions per verification. Each
+ * promoted table takes about 16 KiB, so the number of promoted keys is
+ * capped by {@link #getMaxPromotedKeys()}. A promoted key gives its place
+ * back when it is garbage collected.
+ *</p><p>
+ * This class is thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class EdDSAHotKeys {
+    public static final int DEFAULT_PROMOTION_THRESHOLD = 1000;
+    public static final int DEFAULT_MAX_PROMOTED_KEYS = 256;
+
+    /**
+     * Window width of the table of a promoted key.
+     */
+    static final int WINDOW_WIDTH = GroupElement.MAX_WINDOW_WIDTH;
+
+    private static volatile int promotionThreshold = DEFAULT_PROMOTION_THRESHOLD;
+    private static int maxPromotedKeys = DEFAULT_MAX_PROMOTED_KEYS;
+    private static final ReferenceQueue<EdDSAPublicKey> collected = new ReferenceQueue<EdDSAPublicKey>();
+    private static final Set<Reference<EdDSAPublicKey>> promoted = new HashSet<Reference<EdDSAPublicKey>>();
+
+    private EdDSAHotKeys() {}
+
+    /**
+     * @return the number of verifications after which a key is promoted.
+     */
+    public static int getPromotionThreshold() {
+        return promotionThreshold;
+    }
+
+    /**
+     * @param threshold the number of verifications after which a key is promoted.
+     * @throws IllegalArgumentException if threshold is not positive
+     */
+    public static void setPromotionThreshold(int threshold) {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("threshold must be positive");
+        promotionThreshold = threshold;
+    }
+
+    /**
+     * @return the maximum number of keys that can be promoted at once.
+     */
+    public static synchronized int getMaxPromotedKeys() {
+        return maxPromotedKeys;
+    }
+
+    /**
+     * Keys that are already promoted keep their tables if the new maximum
+     * is lower than the number of promoted keys; no new keys are promoted
+     * until enough of them have been garbage collected.
+     *
+     * @param max the maximum number of keys that can be promoted at once,
+     *            or 0 to disable promotion.
+     * @throws IllegalArgumentException if max is negative
+     */
+    public static synchronized void setMaxPromotedKeys(int max) {
+        if (max < 0)
+            throw new IllegalArgumentException("max must not be negative");
+        maxPromotedKeys = max;
+    }
+
+    /**
+     * @return the number of promoted keys that are still reachable.
+     */
+    public static synchronized int getPromotedKeyCount() {
+        expunge();
+        return promoted.size();
+    }
+
+    /**
+     * Reserves room for the table of a key, if the budget allows it.
+     *
+     * @param key the key to promote.
+     * @return true if the key may be promoted.
+     */
+    static synchronized boolean reserve(EdDSAPublicKey key) {
+        expunge();
+        if (promoted.size() >= maxPromotedKeys)
+            return false;
+        promoted.add(new WeakReference<EdDSAPublicKey>(key, collected));
+        return true;
+    }
+
+    /**
+     * Forgets all promoted keys, without removing their tables.
+     * <p>
+     * Method is package private only so that tests run.
+     */
+    static synchronized void reset() {
+        promoted.clear();
+    }
+
+    /**
+     * Releases the room held by keys that have been garbage collected.
+     */
+    private static void expunge() {
+        Reference<? extends EdDSAPublicKey> ref;
+        while ((ref = collected.poll()) != null)
+            promoted.remove(ref);
+    }
+}
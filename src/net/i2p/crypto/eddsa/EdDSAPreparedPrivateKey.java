@@ -0,0 +1,138 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519ScalarOps;
+
+/**
+ * A private key that has been prepared for signing many messages.
+ *<p>
+ * The digest state after hashing the key prefix $h_b,\dots,h_{2b-1}$ is kept,
+ * and each signature starts from a clone of it. For Ed25519, the scalar $a$
+ * is also kept in the form used by
+ * {@link Ed25519ScalarOps#multiplyAndAdd(byte[], long[], byte[])}.
+ *</p><p>
+ * {@link #signAll(byte[][])} signs several messages at once, encoding all
+ * their points $R$ with a single field inversion.
+ *</p><p>
+ * This class is thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class EdDSAPreparedPrivateKey {
+    private final EdDSAPrivateKey key;
+    private final MessageDigest prefixDigest;
+    private final long[] aLimbs;
+
+    /**
+     * @param key the private key to prepare
+     * @throws IllegalStateException if the hash algorithm of the key is not available
+     */
+    public EdDSAPreparedPrivateKey(EdDSAPrivateKey key) {
+        this.key = key;
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(key.getParams().getHashAlgorithm());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("cannot get required digest " + key.getParams().getHashAlgorithm(), e);
+        }
+        EdDSAEngine.digestInitSign(digest, key);
+        try {
+            digest.clone();
+        } catch (CloneNotSupportedException e) {
+            // Fall back to hashing the prefix for every signature
+            digest = null;
+        }
+        this.prefixDigest = digest;
+        this.aLimbs = key.getParams().getScalarOps() instanceof Ed25519ScalarOps
+                ? Ed25519ScalarOps.toLimbs(key.geta())
+                : null;
+    }
+
+    /**
+     * @return the private key this was prepared from.
+     */
+    public EdDSAPrivateKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return a digest that has already hashed the key prefix.
+     */
+    private MessageDigest newDigest() {
+        if (prefixDigest != null) {
+            try {
+                return (MessageDigest) prefixDigest.clone();
+            } catch (CloneNotSupportedException e) {
+                // Checked in the constructor
+                throw new IllegalStateException(e);
+            }
+        }
+        MessageDigest digest = EdDSA.getDigest(key);
+        EdDSAEngine.digestInitSign(digest, key);
+        return digest;
+    }
+
+    /**
+     * @param data the message to be signed
+     * @return the signature
+     */
+    public byte[] sign(byte[] data) {
+        return sign(data, 0, data.length);
+    }
+
+    /**
+     * @param data byte array containing the message to be signed
+     * @param off the start of the message inside data
+     * @param len the length of the message
+     * @return the signature
+     */
+    public byte[] sign(byte[] data, int off, int len) {
+        return EdDSAEngine.sign(newDigest(), key, aLimbs, null, ByteBuffer.wrap(data, off, len));
+    }
+
+    /**
+     * Signs several messages. Each signature is the same as the one
+     * {@link #sign(byte[])} returns, but the points $R = rB$ are encoded
+     * together, see {@link GroupElement#toByteArray(GroupElement[])}.
+     *
+     * @param messages the messages to be signed
+     * @return the signatures, in the same order as the messages
+     */
+    public byte[][] signAll(byte[][] messages) {
+        int n = messages.length;
+        byte[][] r = new byte[n][];
+        GroupElement[] R = new GroupElement[n];
+        GroupElement B = key.getParams().getB();
+        MessageDigest digest = null;
+        for (int i = 0; i < n; i++) {
+            digest = newDigest();
+            r[i] = EdDSAEngine.nonce(digest, key, ByteBuffer.wrap(messages[i]));
+            R[i] = B.scalarMultiply(r[i]);
+        }
+
+        byte[][] Rbyte = GroupElement.toByteArray(R);
+        byte[][] sigs = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            // Every digest is reset now, so the last one finishes all the signatures
+            sigs[i] = EdDSAEngine.finishSign(digest, key, aLimbs, null, r[i], Rbyte[i],
+                    ByteBuffer.wrap(messages[i]));
+        }
+        return sigs;
+    }
+}
@@ -53,11 +53,18 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
     private static final int IDLEN_BYTE = 6;
 
     public EdDSAPrivateKey(EdDSAPrivateKeySpec spec) {
+        this(spec, spec.getA().toByteArray());
+    }
+
+    /**
+     * @param Abyte the encoding of the point A of the spec, already computed by the caller.
+     */
+    EdDSAPrivateKey(EdDSAPrivateKeySpec spec, byte[] Abyte) {
         this.seed = spec.getSeed();
         this.h = spec.getH();
         this.a = spec.geta();
         this.A = spec.getA();
-        this.Abyte = this.A.toByteArray();
+        this.Abyte = Abyte;
         this.edDsaSpec = spec.getParams();
     }
 
@@ -41,6 +41,8 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
     private static final long serialVersionUID = 9837459837498475L;
     private final GroupElement A;
     private GroupElement Aneg = null;
+    private transient volatile GroupElement AnegWide = null;
+    private transient volatile int verifications = 0;
     private final byte[] Abyte;
     private final EdDSAParameterSpec edDsaSpec;
 
@@ -51,8 +53,15 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
     private static final int IDLEN_BYTE = 3;
 
     public EdDSAPublicKey(EdDSAPublicKeySpec spec) {
+        this(spec, spec.getA().toByteArray());
+    }
+
+    /**
+     * @param Abyte the encoding of the point A of the spec, already computed by the caller.
+     */
+    EdDSAPublicKey(EdDSAPublicKeySpec spec, byte[] Abyte) {
         this.A = spec.getA();
-        this.Abyte = this.A.toByteArray();
+        this.Abyte = Abyte;
         this.edDsaSpec = spec.getParams();
     }
 
@@ -258,6 +267,33 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
         return ourAneg;
     }
 
+    /**
+     * Returns $-A$ for use in verification. Once this key has been used
+     * often enough, the result has a larger precomputed table; see
+     * {@link EdDSAHotKeys}.
+     *
+     * @return $-A$ in P3 representation, with a dblPrecmp table.
+     */
+    GroupElement getNegativeAForVerify() {
+        GroupElement ourAnegWide = AnegWide;
+        if (ourAnegWide != null)
+            return ourAnegWide;
+        // The count is approximate under contention, which is harmless.
+        if (++verifications >= EdDSAHotKeys.getPromotionThreshold()) {
+            verifications = 0;
+            synchronized (this) {
+                ourAnegWide = AnegWide;
+                if (ourAnegWide == null && EdDSAHotKeys.reserve(this)) {
+                    ourAnegWide = getNegativeA().toP3PrecomputeDouble(EdDSAHotKeys.WINDOW_WIDTH);
+                    AnegWide = ourAnegWide;
+                }
+            }
+            if (ourAnegWide != null)
+                return ourAnegWide;
+        }
+        return getNegativeA();
+    }
+
     public byte[] getAbyte() {
         return Abyte;
     }
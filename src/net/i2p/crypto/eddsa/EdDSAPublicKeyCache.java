@@ -0,0 +1,231 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+/**
+ * A bounded cache of decoded public keys, keyed by their encoding.
+ *<p>
+ * Decoding a public key requires a square root in the field, and the first
+ * verification with it builds a table of multiples of $-A$. Keys returned by
+ * {@link #get(byte[])} have already had both done, so repeated lookups of
+ * the same key cost only a hash map access.
+ *</p><p>
+ * The keys are split by hash between up to {@link #MAX_SEGMENTS} segments,
+ * each with its own lock and its own share of the maximum size, so threads
+ * looking up different keys rarely wait for each other. When a segment is
+ * full, its least recently used key is evicted, so eviction is only
+ * approximately LRU over the whole cache. Caches smaller than
+ * {@link #MIN_SEGMENT_SIZE} keys per segment use fewer segments.
+ *</p><p>
+ * This class is thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public class EdDSAPublicKeyCache {
+    /**
+     * The largest number of segments a cache is split into.
+     */
+    public static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The smallest share of the maximum size a segment is given.
+     */
+    public static final int MIN_SEGMENT_SIZE = 16;
+
+    private final EdDSAParameterSpec spec;
+    private final int maxSize;
+    private final Segment[] segments;
+
+    /**
+     * Wraps an encoded key so it can be used as a map key.
+     */
+    private static final class Encoding {
+        private final byte[] bytes;
+        private final int hash;
+
+        Encoding(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Encoding && Arrays.equals(bytes, ((Encoding) o).bytes);
+        }
+    }
+
+    /**
+     * An LRU map of part of the keys. All access is synchronized on the
+     * segment.
+     */
+    private static final class Segment extends LinkedHashMap<Encoding, EdDSAPublicKey> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+        long hits;
+        long misses;
+        long evictions;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Encoding, EdDSAPublicKey> eldest) {
+            if (size() > maxSize) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param maxSize the maximum number of keys to keep.
+     * @param spec the parameter specification of the keys.
+     */
+    public EdDSAPublicKeyCache(final int maxSize, EdDSAParameterSpec spec) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("maxSize must be positive");
+        this.spec = spec;
+        this.maxSize = maxSize;
+        // A power of two, so a segment can be picked with a mask
+        int n = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            // Share maxSize out exactly
+            segments[i] = new Segment(maxSize / n + (i < maxSize % n ? 1 : 0));
+        }
+    }
+
+    private Segment segmentFor(Encoding encoding) {
+        int h = encoding.hash;
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Returns the public key with the given encoding, decoding it if it is
+     * not already cached.
+     *
+     * @param pk the encoded public key
+     * @return the public key, ready for verification
+     * @throws IllegalArgumentException if pk is not a valid public key
+     */
+    public EdDSAPublicKey get(byte[] pk) {
+        Encoding encoding = new Encoding(pk.clone());
+        Segment segment = segmentFor(encoding);
+        synchronized (segment) {
+            EdDSAPublicKey key = segment.get(encoding);
+            if (key != null) {
+                segment.hits++;
+                return key;
+            }
+            segment.misses++;
+        }
+
+        // Decode outside the lock; if another thread races us, both results are equivalent
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(encoding.bytes, spec));
+        key.getNegativeA();
+
+        synchronized (segment) {
+            EdDSAPublicKey existing = segment.get(encoding);
+            if (existing != null)
+                return existing;
+            segment.put(encoding, key);
+        }
+        return key;
+    }
+
+    /**
+     * @return the number of keys currently cached.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the maximum number of keys that will be cached.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of lookups that found the key in the cache.
+     */
+    public long getHitCount() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that had to decode the key.
+     */
+    public long getMissCount() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return the number of keys evicted to make room for others.
+     */
+    public long getEvictionCount() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * Removes all keys from the cache. The statistics are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+}
@@ -42,6 +42,7 @@ public class EdDSASecurityProvider extends Provider {
         put("KeyFactory." + EdDSAKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.KeyFactory");
         put("KeyPairGenerator." + EdDSAKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.KeyPairGenerator");
         put("Signature." + EdDSAEngine.SIGNATURE_ALGORITHM, "net.i2p.crypto.eddsa.EdDSAEngine");
+        put("Signature." + Ed25519phEngine.SIGNATURE_ALGORITHM, "net.i2p.crypto.eddsa.Ed25519phEngine");
 
         // OID Mappings
         // See section "Mapping from OID to name".
@@ -0,0 +1,160 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HMAC_DRBG with HMAC-SHA-512, as specified in NIST SP 800-90A Rev. 1,
+ * section 10.1.2, without prediction resistance.
+ *<p>
+ * This class is not thread-safe; {@link ThreadLocalSecureRandom} gives each
+ * thread its own instance.
+ *</p>
+ * @author str4d
+ *
+ */
+final class HmacDrbg {
+    private static final String ALGORITHM = "HmacSHA512";
+
+    /**
+     * Maximum number of bytes per request, $2^{19}$ bits.
+     */
+    static final int MAX_BYTES_PER_REQUEST = 1 << 16;
+
+    /**
+     * Number of requests after which {@link #needsReseed()} is true. SP
+     * 800-90A allows up to $2^{48}$; reseeding much sooner costs little.
+     */
+    static final long RESEED_INTERVAL = 1L << 24;
+
+    private final Mac mac;
+    private final byte[] K = new byte[64];
+    private final byte[] V = new byte[64];
+    private long reseedCounter;
+
+    /**
+     * Instantiates the DRBG.
+     *
+     * @param entropy the entropy input, at least 32 bytes.
+     * @param nonce the nonce, at least 16 bytes.
+     * @param personalization the personalization string, or null.
+     * @throws IllegalStateException if HMAC-SHA-512 is not available
+     */
+    HmacDrbg(byte[] entropy, byte[] nonce, byte[] personalization) {
+        try {
+            mac = Mac.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("cannot get required MAC " + ALGORITHM, e);
+        }
+        Arrays.fill(V, (byte) 0x01);
+        update(entropy, nonce, personalization);
+        reseedCounter = 1;
+    }
+
+    /**
+     * @return true once {@link #RESEED_INTERVAL} requests have been served
+     *         since the last (re)seed.
+     */
+    boolean needsReseed() {
+        return reseedCounter > RESEED_INTERVAL;
+    }
+
+    /**
+     * @param entropy the entropy input, at least 32 bytes.
+     * @param additional additional input, or null.
+     */
+    void reseed(byte[] entropy, byte[] additional) {
+        update(entropy, additional, null);
+        reseedCounter = 1;
+    }
+
+    /**
+     * Fills out with pseudorandom bytes.
+     *
+     * @param out the array to fill, at most {@link #MAX_BYTES_PER_REQUEST} bytes.
+     * @param additional additional input, or null.
+     * @throws IllegalArgumentException if out is too long
+     * @throws IllegalStateException if the DRBG must be reseeded first
+     */
+    void generate(byte[] out, byte[] additional) {
+        if (out.length > MAX_BYTES_PER_REQUEST)
+            throw new IllegalArgumentException("too many bytes requested");
+        if (needsReseed())
+            throw new IllegalStateException("reseed required");
+        if (additional != null && additional.length > 0)
+            update(additional, null, null);
+
+        int off = 0;
+        while (off < out.length) {
+            key(K);
+            mac.update(V);
+            doFinal(V);
+            int n = Math.min(V.length, out.length - off);
+            System.arraycopy(V, 0, out, off, n);
+            off += n;
+        }
+
+        update(additional, null, null);
+        reseedCounter++;
+    }
+
+    /**
+     * HMAC_DRBG_Update, with the provided data given as the concatenation
+     * of up to three parts (null parts are empty).
+     */
+    private void update(byte[] a, byte[] b, byte[] c) {
+        boolean provided = length(a) + length(b) + length(c) > 0;
+        for (byte round = 0; round < (provided ? 2 : 1); round++) {
+            // K = HMAC(K, V || round || provided_data)
+            key(K);
+            mac.update(V);
+            mac.update(round);
+            if (a != null) mac.update(a);
+            if (b != null) mac.update(b);
+            if (c != null) mac.update(c);
+            doFinal(K);
+            // V = HMAC(K, V)
+            key(K);
+            mac.update(V);
+            doFinal(V);
+        }
+    }
+
+    private static int length(byte[] a) {
+        return a == null ? 0 : a.length;
+    }
+
+    private void key(byte[] key) {
+        try {
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (InvalidKeyException e) {
+            // Any non-empty key is valid for HMAC
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void doFinal(byte[] out) {
+        try {
+            mac.doFinal(out, 0);
+        } catch (ShortBufferException e) {
+            // out is as long as the MAC
+            throw new IllegalStateException(e);
+        }
+    }
+}
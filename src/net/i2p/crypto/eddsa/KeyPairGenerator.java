@@ -28,6 +28,13 @@ import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
 
 /**
  *  Default keysize is 256 (Ed25519)
+ *<p>
+ *  Seeds are drawn from a {@link ThreadLocalSecureRandom} if the generator is
+ *  used without being initialized, or is initialized with a null
+ *  {@link SecureRandom}. Otherwise they are drawn from the given one; note that
+ *  {@link java.security.KeyPairGenerator#initialize(int)} passes the
+ *  system's default {@link SecureRandom}.
+ *</p>
  */
 public final class KeyPairGenerator extends KeyPairGeneratorSpi {
     private static final int DEFAULT_KEYSIZE = 256;
@@ -63,13 +70,13 @@ public final class KeyPairGenerator extends KeyPairGeneratorSpi {
         } else
             throw new InvalidAlgorithmParameterException("parameter object not a EdDSAParameterSpec");
 
-        this.random = random;
+        this.random = random != null ? random : new ThreadLocalSecureRandom();
         initialized = true;
     }
 
     public KeyPair generateKeyPair() {
         if (!initialized)
-            initialize(DEFAULT_KEYSIZE, new SecureRandom());
+            initialize(DEFAULT_KEYSIZE, null);
 
         byte[] seed = new byte[edParams.getCurve().getField().getb()/8];
         random.nextBytes(seed);
@@ -0,0 +1,199 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+/**
+ * Buffers a message passed to {@link EdDSAEngine} via update(), so that it
+ * can be hashed twice when signing.
+ *<p>
+ * The message is kept in memory until it grows beyond a threshold, after
+ * which it is moved to a temporary file. In both cases
+ * {@link #segments()} gives access to the message without copying it.
+ *</p>
+ * @author str4d
+ *
+ */
+class MessageBuffer {
+    /**
+     * Exposes the internal array of a ByteArrayOutputStream.
+     */
+    private static class Memory extends ByteArrayOutputStream {
+        Memory() {
+            super(256);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        ByteBuffer wrap() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        void release() {
+            buf = new byte[0];
+            count = 0;
+        }
+    }
+
+    /**
+     * reset() drops the in-memory buffer if it grew beyond this many bytes,
+     * so that one large message does not pin its memory in a long-lived
+     * engine.
+     */
+    static final int RETAINED_CAPACITY = 8192;
+
+    private final long threshold;
+    private final File directory;
+    private final Memory memory = new Memory();
+    private File file;
+    private OutputStream out;
+    private long size;
+
+    /**
+     * @param threshold the number of bytes above which the message is moved to a temporary file.
+     * @param directory the directory for the temporary file, or null for the default.
+     */
+    MessageBuffer(long threshold, File directory) {
+        this.threshold = threshold;
+        this.directory = directory;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void write(int b) throws IOException {
+        if (out == null && size + 1 > threshold)
+            spill();
+        if (out == null)
+            memory.write(b);
+        else
+            out.write(b);
+        size++;
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        if (out == null && size + len > threshold)
+            spill();
+        if (out == null)
+            memory.write(b, off, len);
+        else
+            out.write(b, off, len);
+        size += len;
+    }
+
+    /**
+     * Moves the message to a temporary file. If this fails, the file is
+     * deleted and the message stays in memory.
+     */
+    private void spill() throws IOException {
+        File f = File.createTempFile("eddsa", ".msg", directory);
+        OutputStream o = null;
+        boolean spilled = false;
+        try {
+            o = open(f);
+            memory.writeTo(o);
+            spilled = true;
+        } finally {
+            if (!spilled) {
+                if (o != null) {
+                    try {
+                        o.close();
+                    } catch (IOException e) {
+                        // Nothing useful to do, the file is deleted below
+                    }
+                }
+                delete(f);
+            }
+        }
+        file = f;
+        out = o;
+        memory.release();
+    }
+
+    /**
+     * Method is package private only so that tests run.
+     *
+     * @return a stream that writes to the temporary file.
+     */
+    OutputStream open(File f) throws IOException {
+        return new BufferedOutputStream(new FileOutputStream(f), 8192);
+    }
+
+    /**
+     * The returned buffers are only valid until the next call to
+     * {@link #write(byte[], int, int)} or {@link #reset()}.
+     *
+     * @return the message, as one or more buffers.
+     */
+    ByteBuffer[] segments() throws IOException {
+        if (out == null)
+            return new ByteBuffer[] { memory.wrap() };
+        out.flush();
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return EdDSAEngine.map(raf.getChannel());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Method is package private only so that tests run.
+     *
+     * @return the size of the in-memory buffer.
+     */
+    int capacity() {
+        return memory.capacity();
+    }
+
+    /**
+     * Discards the message, deleting the temporary file if there is one.
+     */
+    void reset() {
+        if (memory.capacity() > RETAINED_CAPACITY)
+            memory.release();
+        else
+            memory.reset();
+        size = 0;
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Nothing useful to do, the file is deleted below
+            }
+            out = null;
+            delete(file);
+            file = null;
+        }
+    }
+
+    /**
+     * Deletes a temporary file. On some platforms this fails while buffers
+     * returned by {@link #segments()} are still mapped; the file is then
+     * left to be deleted when the JVM exits.
+     */
+    private static void delete(File f) {
+        if (!f.delete() && f.exists())
+            f.deleteOnExit();
+    }
+}
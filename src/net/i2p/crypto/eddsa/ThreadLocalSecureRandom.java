@@ -0,0 +1,174 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.security.SecureRandomSpi;
+import java.util.Arrays;
+
+/**
+ * A {@link SecureRandom} that gives each thread its own DRBG, so that many
+ * threads can draw random bytes without contending for a lock.
+ *<p>
+ * Each thread's DRBG is HMAC_DRBG with HMAC-SHA-512 (NIST SP 800-90A), seeded
+ * from the system's default {@link SecureRandom} the first time the thread
+ * uses it, and reseeded from there every $2^{24}$ requests. Small requests
+ * are served from a buffer of 1 KiB per thread. All
+ * instances of this class share the per-thread DRBGs.
+ * {@link #setSeed(byte[])} mixes the seed into the calling thread's DRBG.
+ *</p><p>
+ * {@link KeyPairGenerator} draws its seeds from this class when it is used
+ * without being initialized, or is initialized with a null
+ * {@link SecureRandom}. Initializing it through
+ * {@link java.security.KeyPairGenerator#initialize(int)} passes the system's
+ * default {@link SecureRandom}, which is then used instead.
+ *</p><p>
+ * This class is thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class ThreadLocalSecureRandom extends SecureRandom {
+    private static final long serialVersionUID = 2850934528907305824L;
+
+    private static final SecureRandom SYSTEM = new SecureRandom();
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Number of bytes drawn from a DRBG at once. Every request re-keys the
+     * HMAC several times, so drawing 32 bytes per request would cost about
+     * ten times as much as reading them from NativePRNG.
+     */
+    static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The DRBG of a thread, and the bytes it generated that have not been
+     * handed out yet. Bytes are zeroed as they are handed out.
+     */
+    private static final class State {
+        final HmacDrbg drbg;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int pos = BUFFER_SIZE;
+
+        State() {
+            // 256 bits of entropy and a 128-bit nonce; the thread and time
+            // only make the instances distinct
+            Thread t = Thread.currentThread();
+            drbg = new HmacDrbg(systemBytes(32), systemBytes(16),
+                    (t.getId() + "/" + t.getName() + "/" + System.nanoTime()).getBytes(UTF_8));
+        }
+
+        void nextBytes(byte[] bytes) {
+            int off = 0;
+            while (off < bytes.length) {
+                if (pos == BUFFER_SIZE) {
+                    if (bytes.length - off >= BUFFER_SIZE) {
+                        // Large requests bypass the buffer
+                        int n = Math.min(bytes.length - off, HmacDrbg.MAX_BYTES_PER_REQUEST);
+                        byte[] chunk = n == bytes.length ? bytes : new byte[n];
+                        generate(chunk);
+                        if (chunk != bytes)
+                            System.arraycopy(chunk, 0, bytes, off, n);
+                        off += n;
+                        continue;
+                    }
+                    generate(buffer);
+                    pos = 0;
+                }
+                int n = Math.min(bytes.length - off, BUFFER_SIZE - pos);
+                System.arraycopy(buffer, pos, bytes, off, n);
+                Arrays.fill(buffer, pos, pos + n, (byte) 0);
+                pos += n;
+                off += n;
+            }
+        }
+
+        private void generate(byte[] out) {
+            if (drbg.needsReseed())
+                drbg.reseed(systemBytes(32), null);
+            drbg.generate(out, null);
+        }
+
+        void setSeed(byte[] seed) {
+            drbg.reseed(systemBytes(32), seed);
+            // Buffered bytes were generated before the seed was mixed in
+            Arrays.fill(buffer, (byte) 0);
+            pos = BUFFER_SIZE;
+        }
+    }
+
+    private static final ThreadLocal<State> STATES = new ThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+            return new State();
+        }
+    };
+
+    private final Spi spi;
+
+    public ThreadLocalSecureRandom() {
+        this(new Spi());
+    }
+
+    private ThreadLocalSecureRandom(Spi spi) {
+        super(spi, null);
+        this.spi = spi;
+    }
+
+    private static byte[] systemBytes(int n) {
+        byte[] b = new byte[n];
+        SYSTEM.nextBytes(b);
+        return b;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return "HMAC_DRBG";
+    }
+
+    /**
+     * Unlike {@link SecureRandom#nextBytes(byte[])}, this does not lock.
+     */
+    @Override
+    public void nextBytes(byte[] bytes) {
+        spi.engineNextBytes(bytes);
+    }
+
+    /**
+     * Mixes the seed into the calling thread's DRBG.
+     */
+    @Override
+    public void setSeed(byte[] seed) {
+        spi.engineSetSeed(seed);
+    }
+
+    private static final class Spi extends SecureRandomSpi {
+        private static final long serialVersionUID = -4160453420640434745L;
+
+        @Override
+        protected void engineSetSeed(byte[] seed) {
+            STATES.get().setSeed(seed);
+        }
+
+        @Override
+        protected void engineNextBytes(byte[] bytes) {
+            STATES.get().nextBytes(bytes);
+        }
+
+        @Override
+        protected byte[] engineGenerateSeed(int numBytes) {
+            return SYSTEM.generateSeed(numBytes);
+        }
+    }
+}
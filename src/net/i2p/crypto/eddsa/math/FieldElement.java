@@ -70,6 +70,35 @@ public abstract class FieldElement implements Serializable {
 
     public abstract FieldElement pow22523();
 
+    /**
+     * Computes a square root of $u / v$, where $u$ is this element, as needed
+     * to decode a point. Requires $q \equiv 5 \pmod 8$.
+     * <p>
+     * Setting $β = (u * v^3) * (u * v^7)^{((q - 5) / 8)}$ one has $v * β^2 = \pm u$.
+     * If $v * β^2 = -u$ then $x = β * i$, else $x = β$.
+     *
+     * @param v the denominator.
+     * @param i $\sqrt{-1}$
+     * @return $x$ with $v * x^2 = u$, or null if $u / v$ has no square root.
+     */
+    public FieldElement sqrtRatio(FieldElement v, FieldElement i) {
+        FieldElement x, v3, vxx;
+
+        // v3 = v^3
+        v3 = v.square().multiply(v);
+
+        // x = uv^3(uv^7)^((q-5)/8)
+        x = v3.square().multiply(v).multiply(this).pow22523();
+        x = v3.multiply(this).multiply(x);
+
+        vxx = x.square().multiply(v);
+        if (!vxx.subtract(this).isNonZero())
+            return x;
+        if (!vxx.add(this).isNonZero())
+            return x.multiply(i);
+        return null;
+    }
+
     public abstract FieldElement cmov(FieldElement val, final int b);
 
     // Note: concrete subclasses must implement hashCode() and equals()
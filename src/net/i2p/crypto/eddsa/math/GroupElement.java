@@ -12,6 +12,9 @@
 package net.i2p.crypto.eddsa.math;
 
 import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519FieldElement;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519LaneEngine;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519Point;
 
 import java.io.Serializable;
 import java.util.Arrays;
@@ -172,6 +175,23 @@ public class GroupElement implements Serializable {
         return new GroupElement(curve, Representation.CACHED, YpX, YmX, Z, T2d);
     }
 
+    /**
+     * Window width of the default dblPrecmp table.
+     */
+    static final int DEFAULT_WINDOW_WIDTH = 5;
+
+    /**
+     * Largest supported window width, so that every digit of
+     * {@link #slide(byte[], int)} fits in a byte.
+     */
+    public static final int MAX_WINDOW_WIDTH = 8;
+
+    /**
+     * Window width of the dblPrecmp table of a base point. Base points are
+     * shared by every verification, so they get the widest table.
+     */
+    static final int BASE_WINDOW_WIDTH = MAX_WINDOW_WIDTH;
+
     /**
      * Variable is package private only so that tests run.
      */
@@ -210,6 +230,12 @@ public class GroupElement implements Serializable {
      */
     final GroupElement[][] precmp;
 
+    /**
+     * The limbs of precmp in one flat array, for Ed25519, see
+     * {@link Ed25519Point#flatten(GroupElement[][])}.
+     */
+    private final int[] precmpLimbs;
+
     /**
      * Precomputed table for {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])},
      * filled if necessary.
@@ -264,9 +290,41 @@ public class GroupElement implements Serializable {
         this.Z = Z;
         this.T = T;
         this.precmp = null;
+        this.precmpLimbs = null;
         this.dblPrecmp = precomputeDouble ? precomputeDouble() : null;
     }
 
+    /**
+     * Creates a group element for a curve, with the given table for
+     * {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}.
+     *
+     * @param curve The curve.
+     * @param repr The representation used to represent the group element.
+     * @param X The $X$ coordinate.
+     * @param Y The $Y$ coordinate.
+     * @param Z The $Z$ coordinate.
+     * @param T The $T$ coordinate.
+     * @param dblPrecmp The table of odd multiples of this point.
+     */
+    private GroupElement(
+            final Curve curve,
+            final Representation repr,
+            final FieldElement X,
+            final FieldElement Y,
+            final FieldElement Z,
+            final FieldElement T,
+            final GroupElement[] dblPrecmp) {
+        this.curve = curve;
+        this.repr = repr;
+        this.X = X;
+        this.Y = Y;
+        this.Z = Z;
+        this.T = T;
+        this.precmp = null;
+        this.precmpLimbs = null;
+        this.dblPrecmp = dblPrecmp;
+    }
+
     /**
      * Creates a group element for a curve from a given encoded point. No pre-computation.
      * <p>
@@ -275,8 +333,8 @@ public class GroupElement implements Serializable {
      * </p><ul>
      * <li>$x = sign(x) * \sqrt{(y^2 - 1) / (d * y^2 + 1)} = sign(x) * \sqrt{u / v}$ with $u = y^2 - 1$ and $v = d * y^2 + 1$.
      * <li>Setting $β = (u * v^3) * (u * v^7)^{((q - 5) / 8)}$ one has $β^2 = \pm(u / v)$.
-     * <li>If $v * β = -u$ multiply $β$ with $i=\sqrt{-1}$.
-     * <li>Set $x := β$.
+     * <li>If $v * β^2 = -u$ multiply $β$ with $i=\sqrt{-1}$.
+     * <li>Set $x := β$, see {@link FieldElement#sqrtRatio(FieldElement, FieldElement)}.
      * <li>If $sign(x) \ne$ bit 255 of $s$ then negate $x$.
      * </ul>
      *
@@ -295,17 +353,20 @@ public class GroupElement implements Serializable {
      * </p><ul>
      * <li>$x = sign(x) * \sqrt{(y^2 - 1) / (d * y^2 + 1)} = sign(x) * \sqrt{u / v}$ with $u = y^2 - 1$ and $v = d * y^2 + 1$.
      * <li>Setting $β = (u * v^3) * (u * v^7)^{((q - 5) / 8)}$ one has $β^2 = \pm(u / v)$.
-     * <li>If $v * β = -u$ multiply $β$ with $i=\sqrt{-1}$.
-     * <li>Set $x := β$.
+     * <li>If $v * β^2 = -u$ multiply $β$ with $i=\sqrt{-1}$.
+     * <li>Set $x := β$, see {@link FieldElement#sqrtRatio(FieldElement, FieldElement)}.
      * <li>If $sign(x) \ne$ bit 255 of $s$ then negate $x$.
      * </ul>
      *
      * @param curve The curve.
      * @param s The encoded point.
      * @param precomputeSingleAndDouble If true, populate both precmp and dblPrecmp, else set both to null.
+     *        This is intended for base points, so dblPrecmp is built for a window of
+     *        width {@link #BASE_WINDOW_WIDTH}. The tables of the Ed25519 base point
+     *        are loaded from {@link PrecomputedTables} rather than computed.
      */
     public GroupElement(final Curve curve, final byte[] s, boolean precomputeSingleAndDouble) {
-        FieldElement x, y, yy, u, v, v3, vxx, check;
+        FieldElement x, y, yy, u, v;
         y = curve.getField().fromByteArray(s);
         yy = y.square();
 
@@ -315,27 +376,10 @@ public class GroupElement implements Serializable {
         // v = dy^2+1
         v = yy.multiply(curve.getD()).addOne();
 
-        // v3 = v^3
-        v3 = v.square().multiply(v);
-
-        // x = (v3^2)vu, aka x = uv^7
-        x = v3.square().multiply(v).multiply(u);
-
-        //  x = (uv^7)^((q-5)/8)
-        x = x.pow22523();
-
-        // x = uv^3(uv^7)^((q-5)/8)
-        x = v3.multiply(u).multiply(x);
-
-        vxx = x.square().multiply(v);
-        check = vxx.subtract(u);            // vx^2-u
-        if (check.isNonZero()) {
-            check = vxx.add(u);             // vx^2+u
-
-            if (check.isNonZero())
-                throw new IllegalArgumentException("not a valid GroupElement");
-            x = x.multiply(curve.getI());
-        }
+        // x = sqrt(u/v)
+        x = u.sqrtRatio(v, curve.getI());
+        if (x == null)
+            throw new IllegalArgumentException("not a valid GroupElement");
 
         if ((x.isNegative() ? 1 : 0) != Utils.bit(s, curve.getField().getb()-1)) {
             x = x.negate();
@@ -348,10 +392,19 @@ public class GroupElement implements Serializable {
         this.Z = curve.getField().ONE;
         this.T = this.X.multiply(this.Y);
         if(precomputeSingleAndDouble) {
-            precmp = precomputeSingle();
-            dblPrecmp = precomputeDouble();
+            // Load the tables if they were shipped for this point
+            GroupElement[][] single = new GroupElement[32][8];
+            GroupElement[] dbl = new GroupElement[1 << (BASE_WINDOW_WIDTH - 2)];
+            if (!PrecomputedTables.load(curve, s, single, dbl)) {
+                single = precomputeSingle();
+                dbl = precomputeDouble(dbl.length);
+            }
+            precmp = single;
+            precmpLimbs = this.X instanceof Ed25519FieldElement ? Ed25519Point.flatten(precmp) : null;
+            dblPrecmp = dbl;
         } else {
             precmp = null;
+            precmpLimbs = null;
             dblPrecmp = null;
         }
     }
@@ -434,6 +487,36 @@ public class GroupElement implements Serializable {
         }
     }
 
+    /**
+     * Converts many group elements to encoded points, with a single field
+     * inversion for all of them, see {@link #invertAll(FieldElement[])}.
+     * <p>
+     * The result is the same as calling {@link #toByteArray()} on each
+     * element.
+     *
+     * @param points the group elements to encode.
+     * @return the encoded points, in the same order.
+     */
+    public static byte[][] toByteArray(final GroupElement[] points) {
+        final GroupElement[] p = new GroupElement[points.length];
+        final FieldElement[] Z = new FieldElement[points.length];
+        for (int i = 0; i < points.length; i++) {
+            p[i] = points[i].repr == Representation.P2 || points[i].repr == Representation.P3
+                    ? points[i] : points[i].toP2();
+            Z[i] = p[i].Z;
+        }
+        final FieldElement[] recip = invertAll(Z);
+
+        final byte[][] s = new byte[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            FieldElement x = p[i].X.multiply(recip[i]);
+            FieldElement y = p[i].Y.multiply(recip[i]);
+            s[i] = y.toByteArray();
+            s[i][s[i].length-1] |= (x.isNegative() ? (byte) 0x80 : 0);
+        }
+        return s;
+    }
+
     /**
      * Converts the group element to the P2 representation.
      *
@@ -461,6 +544,27 @@ public class GroupElement implements Serializable {
         return toRep(Representation.P3PrecomputedDouble);
     }
 
+    /**
+     * Converts the group element to the P3 representation, with a dblPrecmp
+     * table for a sliding window of the given width.
+     * <p>
+     * The table holds $2^{w-2}$ points, 8 for the default width of 5. A scalar
+     * multiplied by this point in
+     * {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}
+     * then costs about $256/(w+1)$ additions.
+     *
+     * @param width the window width, between 2 and {@link #MAX_WINDOW_WIDTH}.
+     * @return The group element in the P3 representation.
+     * @throws IllegalArgumentException if width is out of range.
+     */
+    public GroupElement toP3PrecomputeDouble(final int width) {
+        if (width < 2 || width > MAX_WINDOW_WIDTH)
+            throw new IllegalArgumentException("window width out of range");
+        final GroupElement p = toP3();
+        return new GroupElement(this.curve, Representation.P3, p.X, p.Y, p.Z, p.T,
+                p.precomputeDouble(1 << (width - 2)));
+    }
+
     /**
      * Converts the group element to the CACHED representation.
      *
@@ -539,19 +643,19 @@ public class GroupElement implements Serializable {
 
     /**
      * Precomputes table for {@link #scalarMultiply(byte[])}.
+     * <p>
+     * Method is package private only so that {@link PrecomputedTables} can
+     * write the tables without loading them.
      */
-    private GroupElement[][] precomputeSingle() {
+    GroupElement[][] precomputeSingle() {
         // Precomputation for single scalar multiplication.
-        GroupElement[][] precmp = new GroupElement[32][8];
+        final GroupElement[] points = new GroupElement[32 * 8];
         // TODO-CR BR: check that this == base point when the method is called.
         GroupElement Bi = this;
         for (int i = 0; i < 32; i++) {
             GroupElement Bij = Bi;
             for (int j = 0; j < 8; j++) {
-                final FieldElement recip = Bij.Z.invert();
-                final FieldElement x = Bij.X.multiply(recip);
-                final FieldElement y = Bij.Y.multiply(recip);
-                precmp[i][j] = precomp(this.curve, y.add(x), y.subtract(x), x.multiply(y).multiply(this.curve.get2D()));
+                points[8 * i + j] = Bij;
                 Bij = Bij.add(Bi.toCached()).toP3();
             }
             // Only every second summand is precomputed (16^2 = 256)
@@ -559,6 +663,12 @@ public class GroupElement implements Serializable {
                 Bi = Bi.add(Bi.toCached()).toP3();
             }
         }
+
+        final GroupElement[] affine = toPrecompAll(points);
+        GroupElement[][] precmp = new GroupElement[32][8];
+        for (int i = 0; i < 32; i++) {
+            System.arraycopy(affine, 8 * i, precmp[i], 0, 8);
+        }
         return precmp;
     }
 
@@ -568,17 +678,83 @@ public class GroupElement implements Serializable {
     private GroupElement[] precomputeDouble() {
         // Precomputation for double scalar multiplication.
         // P,3P,5P,7P,9P,11P,13P,15P
-        GroupElement[] dblPrecmp = new GroupElement[8];
+        return precomputeDouble(1 << (DEFAULT_WINDOW_WIDTH - 2));
+    }
+
+    /**
+     * Precomputes the odd multiples $P, 3P, \dots, (2n-1)P$ of this point.
+     *
+     * @param n the number of multiples.
+     * @return the multiples, in PRECOMP representation.
+     */
+    GroupElement[] precomputeDouble(final int n) {
+        final GroupElement[] points = new GroupElement[n];
+        final GroupElement twoP = this.dbl().toP3().toCached();
         GroupElement Bi = this;
-        for (int i = 0; i < 8; i++) {
-            final FieldElement recip = Bi.Z.invert();
-            final FieldElement x = Bi.X.multiply(recip);
-            final FieldElement y = Bi.Y.multiply(recip);
-            dblPrecmp[i] = precomp(this.curve, y.add(x), y.subtract(x), x.multiply(y).multiply(this.curve.get2D()));
-            // Bi = edwards(B,edwards(B,Bi))
-            Bi = this.add(this.add(Bi.toCached()).toP3().toCached()).toP3();
+        for (int i = 0; i < n; i++) {
+            points[i] = Bi;
+            // Bi = Bi + 2P
+            Bi = Bi.add(twoP).toP3();
+        }
+        return toPrecompAll(points);
+    }
+
+    /**
+     * Converts points in P3 representation to PRECOMP representation, with
+     * a single field inversion for all of them.
+     *
+     * @param points the points, in P3 representation.
+     * @return the points, in PRECOMP representation.
+     */
+    private static GroupElement[] toPrecompAll(final GroupElement[] points) {
+        final FieldElement[] Z = new FieldElement[points.length];
+        for (int i = 0; i < points.length; i++) {
+            Z[i] = points[i].Z;
+        }
+        final FieldElement[] recip = invertAll(Z);
+
+        final GroupElement[] precmp = new GroupElement[points.length];
+        for (int i = 0; i < points.length; i++) {
+            final GroupElement p = points[i];
+            final FieldElement x = p.X.multiply(recip[i]);
+            final FieldElement y = p.Y.multiply(recip[i]);
+            precmp[i] = precomp(p.curve, y.add(x), y.subtract(x), x.multiply(y).multiply(p.curve.get2D()));
+        }
+        return precmp;
+    }
+
+    /**
+     * Inverts many field elements at the cost of one inversion and
+     * $3(n - 1)$ multiplications (Montgomery's trick).
+     * <p>
+     * With $c_i = z_0 * \dots * z_i$, one inversion gives $c_{n-1}^{-1}$, and
+     * then $z_i^{-1} = c_i^{-1} * c_{i-1}$ and $c_{i-1}^{-1} = c_i^{-1} * z_i$
+     * going down from $i = n - 1$.
+     * <p>
+     * All elements must be non-zero, which holds for the $Z$ coordinate of
+     * any point in projective representation.
+     *
+     * @param z the elements to invert.
+     * @return the inverses, in the same order.
+     */
+    static FieldElement[] invertAll(final FieldElement[] z) {
+        final int n = z.length;
+        final FieldElement[] r = new FieldElement[n];
+        if (n == 0)
+            return r;
+
+        r[0] = z[0];
+        for (int i = 1; i < n; i++) {
+            r[i] = r[i - 1].multiply(z[i]);
         }
-        return dblPrecmp;
+
+        FieldElement inv = r[n - 1].invert();
+        for (int i = n - 1; i > 0; i--) {
+            r[i] = inv.multiply(r[i - 1]);
+            inv = inv.multiply(z[i]);
+        }
+        r[0] = inv;
+        return r;
     }
 
     /**
@@ -959,6 +1135,9 @@ public class GroupElement implements Serializable {
 
         final byte[] e = toRadix16(a);
 
+        if (this.X instanceof Ed25519FieldElement)
+            return Ed25519Point.scalarMultiply(this.curve, this.precmpLimbs, e);
+
         GroupElement h = this.curve.getZero(Representation.P3);
         for (i = 1; i < 64; i += 2) {
             t = select(i/2, e[i]);
@@ -988,6 +1167,25 @@ public class GroupElement implements Serializable {
      * @return The byte array $r$ in the above described form.
      */
     static byte[] slide(final byte[] a) {
+        return slide(a, DEFAULT_WINDOW_WIDTH);
+    }
+
+    /**
+     * Calculates a sliding-windows base 2 representation for a given value $a$,
+     * with a window of width $w$.
+     * <p>
+     * Output: $r$ which satisfies
+     * $a = r0 * 2^0 + r1 * 2^1 + \dots + r255 * 2^{255}$ with $ri$ odd and
+     * $|ri| < 2^{w-1}$, or $ri = 0$.
+     * <p>
+     * Method is package private only so that tests run.
+     *
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$.
+     * @param w the window width, between 2 and {@link #MAX_WINDOW_WIDTH}.
+     * @return The byte array $r$ in the above described form.
+     */
+    static byte[] slide(final byte[] a, final int w) {
+        final int max = (1 << (w - 1)) - 1;
         byte[] r = new byte[256];
 
         // Put each bit of 'a' into a separate byte, 0 or 1
@@ -998,13 +1196,13 @@ public class GroupElement implements Serializable {
         // Note: r[i] will always be odd.
         for (int i = 0; i < 256; ++i) {
             if (r[i] != 0) {
-                for (int b = 1; b <= 6 && i + b < 256; ++b) {
+                for (int b = 1; b <= w + 1 && i + b < 256; ++b) {
                     // Accumulate bits if possible
                     if (r[i + b] != 0) {
-                        if (r[i] + (r[i + b] << b) <= 15) {
+                        if (r[i] + (r[i + b] << b) <= max) {
                             r[i] += r[i + b] << b;
                             r[i + b] = 0;
-                        } else if (r[i] - (r[i + b] << b) >= -15) {
+                        } else if (r[i] - (r[i + b] << b) >= -max) {
                             r[i] -= r[i + b] << b;
                             for (int k = i + b; k < 256; ++k) {
                                 if (r[k] == 0) {
@@ -1028,6 +1226,10 @@ public class GroupElement implements Serializable {
      * $b = b[0]+256*b[1]+\dots+256^{31} b[31]$ and $B$ is this point.
      * <p>
      * $A$ must have been previously precomputed.
+     * <p>
+     * The window width used for each scalar follows from the size of the
+     * dblPrecmp table of the corresponding point, see
+     * {@link #toP3PrecomputeDouble(int)}.
      *
      * @param A in P3 representation.
      * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
@@ -1036,8 +1238,11 @@ public class GroupElement implements Serializable {
      */
     public GroupElement doubleScalarMultiplyVariableTime(final GroupElement A, final byte[] a, final byte[] b) {
         // TODO-CR BR: A check that this is the base point is needed.
-        final byte[] aslide = slide(a);
-        final byte[] bslide = slide(b);
+        final byte[] aslide = slide(a, windowWidth(A.dblPrecmp));
+        final byte[] bslide = slide(b, windowWidth(this.dblPrecmp));
+
+        if (this.X instanceof Ed25519FieldElement)
+            return Ed25519Point.doubleScalarMultiplyVariableTime(this.curve, aslide, A.dblPrecmp, bslide, this.dblPrecmp);
 
         GroupElement r = this.curve.getZero(Representation.P2);
 
@@ -1067,6 +1272,288 @@ public class GroupElement implements Serializable {
         return r;
     }
 
+    /**
+     * $r_i = a_i * A_i + b_i * B$ for every $i$, where $B$ is this point,
+     * see {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}.
+     * <p>
+     * For Ed25519, the multiplications are evaluated together by
+     * {@link Ed25519LaneEngine}.
+     *
+     * @param A the $A_i$, each previously precomputed.
+     * @param a the $a_i$
+     * @param b the $b_i$
+     * @return the $r_i$
+     */
+    public GroupElement[] doubleScalarMultiplyVariableTime(final GroupElement[] A, final byte[][] a, final byte[][] b) {
+        final GroupElement[] r = new GroupElement[A.length];
+        if (!(this.X instanceof Ed25519FieldElement)) {
+            for (int i = 0; i < A.length; i++) {
+                r[i] = doubleScalarMultiplyVariableTime(A[i], a[i], b[i]);
+            }
+            return r;
+        }
+
+        final byte[][] aslides = new byte[A.length][];
+        final GroupElement[][] aTables = new GroupElement[A.length][];
+        final byte[][] bslides = new byte[A.length][];
+        for (int i = 0; i < A.length; i++) {
+            aslides[i] = slide(a[i], windowWidth(A[i].dblPrecmp));
+            aTables[i] = A[i].dblPrecmp;
+            bslides[i] = slide(b[i], windowWidth(this.dblPrecmp));
+        }
+        Ed25519LaneEngine.getInstance().doubleScalarMultiplyVariableTime(this.curve,
+                aslides, aTables, bslides, this.dblPrecmp, r);
+        return r;
+    }
+
+    /**
+     * @return the window width matching a dblPrecmp table.
+     */
+    private static int windowWidth(final GroupElement[] dblPrecmp) {
+        return Integer.numberOfTrailingZeros(dblPrecmp.length) + 2;
+    }
+
+    /**
+     * Number of points from which
+     * {@link #multiScalarMultiplyVariableTime(GroupElement[], byte[][])}
+     * switches from Straus' method to Pippenger's bucket method.
+     * <p>
+     * Measured with MultiScalarMultiplyBenchmark in the tests: below about
+     * 128 points Straus is faster, from 128 to 176 points the two cost the
+     * same per point within a few percent, and from about 256 points
+     * Pippenger is clearly faster and keeps getting cheaper. 160 is in the
+     * middle of the range where the choice makes no difference, so the
+     * exact value matters little; rerun the benchmark before changing it.
+     */
+    static final int PIPPENGER_THRESHOLD = 160;
+
+    /**
+     * Precomputes $P, 3P, 5P, \dots, 15P$ in CACHED representation for
+     * {@link #multiScalarMultiplyStraus(GroupElement[], byte[][])}.
+     * <p>
+     * Unlike {@link #precomputeDouble()} the entries are left projective,
+     * so no field inversions are needed.
+     *
+     * @return the table of odd multiples of this point.
+     */
+    private GroupElement[] precomputeCachedOdd() {
+        final GroupElement P = toP3Checked(this);
+        final GroupElement[] table = new GroupElement[8];
+        final GroupElement P2 = P.dbl().toP3();
+        table[0] = this.repr == Representation.CACHED ? this : P.toCached();
+        for (int i = 1; i < 8; i++) {
+            table[i] = P2.add(table[i - 1]).toP3().toCached();
+        }
+        return table;
+    }
+
+    /**
+     * @return g in P3 representation.
+     * @throws UnsupportedOperationException if g is neither P3 nor CACHED.
+     */
+    private static GroupElement toP3Checked(final GroupElement g) {
+        switch (g.repr) {
+            case P3:
+                return g;
+            case CACHED:
+                return g.curve.getZero(Representation.P3).add(g).toP3();
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * @return g in CACHED representation.
+     * @throws UnsupportedOperationException if g is neither P3 nor CACHED.
+     */
+    private static GroupElement toCachedChecked(final GroupElement g) {
+        switch (g.repr) {
+            case P3:
+                return g.toCached();
+            case CACHED:
+                return g;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * $r = \sum_i s_i * P_i$ where $s_i = s_i[0]+256*s_i[1]+\dots+256^{31} s_i[31]$.
+     * <p>
+     * For small numbers of points this uses Straus' method with interleaved
+     * sliding windows, so all points share a single chain of doublings. For
+     * {@link #PIPPENGER_THRESHOLD} points or more it switches to Pippenger's
+     * bucket method, whose cost per point shrinks as the number of points
+     * grows. The points do not need to have been precomputed.
+     * <p>
+     * Variable time. Only use this on public values.
+     *
+     * @param points the points $P_i$, in P3 or CACHED representation.
+     * @param scalars the scalars $s_i$, each less than $2^{255}$.
+     * @return the GroupElement, in P2 representation.
+     * @throws IllegalArgumentException if the arrays are empty or of different lengths.
+     * @throws UnsupportedOperationException if a point is neither P3 nor CACHED.
+     */
+    public static GroupElement multiScalarMultiplyVariableTime(final GroupElement[] points, final byte[][] scalars) {
+        if (points.length != scalars.length)
+            throw new IllegalArgumentException("points and scalars must have the same length");
+        if (points.length == 0)
+            throw new IllegalArgumentException("at least one point is required");
+
+        if (points.length < PIPPENGER_THRESHOLD)
+            return multiScalarMultiplyStraus(points, scalars);
+        else
+            return multiScalarMultiplyPippenger(points, scalars);
+    }
+
+    /**
+     * Straus' method with interleaved sliding windows (the same representation
+     * as {@link #slide(byte[])}).
+     * <p>
+     * Method is package private only so that tests run.
+     *
+     * @param points the points $P_i$, in P3 or CACHED representation.
+     * @param scalars the scalars $s_i$.
+     * @return the GroupElement, in P2 representation.
+     */
+    static GroupElement multiScalarMultiplyStraus(final GroupElement[] points, final byte[][] scalars) {
+        final int n = points.length;
+        final byte[][] slides = new byte[n][];
+        final GroupElement[][] tables = new GroupElement[n][];
+        for (int j = 0; j < n; j++) {
+            slides[j] = slide(scalars[j]);
+            tables[j] = points[j].precomputeCachedOdd();
+        }
+
+        GroupElement r = points[0].curve.getZero(Representation.P2);
+
+        int i;
+        outer:
+        for (i = 255; i >= 0; --i) {
+            for (int j = 0; j < n; j++) {
+                if (slides[j][i] != 0) break outer;
+            }
+        }
+
+        for (; i >= 0; --i) {
+            GroupElement t = r.dbl();
+
+            for (int j = 0; j < n; j++) {
+                final byte d = slides[j][i];
+                if (d > 0) {
+                    t = t.toP3().add(tables[j][d/2]);
+                } else if (d < 0) {
+                    t = t.toP3().sub(tables[j][(-d)/2]);
+                }
+            }
+
+            r = t.toP2();
+        }
+
+        return r;
+    }
+
+    /**
+     * Pippenger's bucket method.
+     * <p>
+     * The scalars are split into signed $c$-bit digits. For each window, every
+     * point is added to (or subtracted from) the bucket of its digit's
+     * magnitude, and the buckets are then summed with a running sum so that
+     * bucket $k$ is counted $k$ times. The windows are combined from the top
+     * with $c$ doublings each.
+     * <p>
+     * Method is package private only so that tests run.
+     *
+     * @param points the points $P_i$, in P3 or CACHED representation.
+     * @param scalars the scalars $s_i$.
+     * @return the GroupElement, in P2 representation.
+     */
+    static GroupElement multiScalarMultiplyPippenger(final GroupElement[] points, final byte[][] scalars) {
+        final int n = points.length;
+        final Curve curve = points[0].curve;
+        final GroupElement zero = curve.getZero(Representation.P3);
+
+        // Roughly minimizes (n + 2^c) * 256 / c
+        int c = 2;
+        while (c < 16 && (1 << (c + 3)) <= n)
+            c++;
+        final int windows = 256 / c + 2;
+
+        final GroupElement[] cached = new GroupElement[n];
+        final int[][] digits = new int[n][];
+        for (int j = 0; j < n; j++) {
+            cached[j] = toCachedChecked(points[j]);
+            digits[j] = signedRadix(scalars[j], c, windows);
+        }
+
+        final GroupElement[] buckets = new GroupElement[1 << (c - 1)];
+        GroupElement r = null;
+        for (int w = windows - 1; w >= 0; --w) {
+            if (r != null) {
+                GroupElement t = r.toP2();
+                for (int k = 1; k < c; k++)
+                    t = t.dbl().toP2();
+                r = t.dbl().toP3();
+            }
+
+            for (int j = 0; j < n; j++) {
+                final int d = digits[j][w];
+                if (d > 0) {
+                    final GroupElement b = buckets[d - 1];
+                    buckets[d - 1] = (b == null ? zero : b).add(cached[j]).toP3();
+                } else if (d < 0) {
+                    final GroupElement b = buckets[-d - 1];
+                    buckets[-d - 1] = (b == null ? zero : b).sub(cached[j]).toP3();
+                }
+            }
+
+            // sum = buckets[0] + 2 * buckets[1] + 3 * buckets[2] + ...
+            GroupElement running = null;
+            GroupElement sum = null;
+            for (int k = buckets.length - 1; k >= 0; --k) {
+                if (buckets[k] != null) {
+                    running = running == null ? buckets[k] : running.add(buckets[k].toCached()).toP3();
+                    buckets[k] = null;
+                }
+                if (running != null)
+                    sum = sum == null ? running : sum.add(running.toCached()).toP3();
+            }
+
+            if (sum != null)
+                r = r == null ? sum : r.add(sum.toCached()).toP3();
+        }
+
+        return r == null ? curve.getZero(Representation.P2) : r.toP2();
+    }
+
+    /**
+     * Splits a 256-bit scalar $a$ into signed digits $e_i$ such that
+     * $a = \sum e_i 2^{ci}$ with $-2^{c-1} \leq e_i < 2^{c-1}$.
+     *
+     * @param a $a[0]+256*a[1]+\dots+256^{31}*a[31]$
+     * @param c the window width in bits, at most 16.
+     * @param windows the number of digits to produce, must be greater than $256/c$.
+     * @return the digits, least significant first.
+     */
+    static int[] signedRadix(final byte[] a, final int c, final int windows) {
+        final int[] e = new int[windows];
+        final int mask = (1 << c) - 1;
+        int carry = 0;
+        for (int w = 0; w < windows; w++) {
+            final int bit = w * c;
+            int v = 0;
+            for (int k = (bit >> 3) + 2; k >= bit >> 3; --k) {
+                v <<= 8;
+                if (k < a.length)
+                    v |= a[k] & 0xff;
+            }
+            v = ((v >>> (bit & 7)) & mask) + carry;
+            carry = v >= (1 << (c - 1)) ? 1 : 0;
+            e[w] = v - (carry << c);
+        }
+        return e;
+    }
+
     /**
      * Verify that a point is on its curve.
      * @return true if the point lies on its curve.
@@ -0,0 +1,148 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The tables of the Ed25519 base point, shipped as a resource so that they
+ * do not have to be computed when the curve is first used.
+ * <p>
+ * The resource holds 32-byte encodings: $d$, the base point, then $y + x$,
+ * $y - x$ and $2 * d * x * y$ of every entry of precmp (row by row) and of
+ * dblPrecmp. It is only used if its CRC-32 matches, and if $d$ and the point
+ * match the ones being constructed; otherwise the tables are computed as
+ * before.
+ * <p>
+ * The checksum guards against a damaged resource. A cryptographic hash would
+ * add nothing, since its expected value would ship in the same jar, and
+ * SHA-256 of the resource takes longer in a cold JVM than computing the
+ * tables.
+ *
+ * @author str4d
+ */
+final class PrecomputedTables {
+    static final String RESOURCE = "ed25519-base-tables.bin";
+
+    /** Printed by PrecomputedTablesGenerator in the tests. */
+    private static final long CRC = 0x5470e1abL;
+
+    private static final int ROWS = 32;
+    private static final int COLUMNS = 8;
+    static final int DOUBLE_ENTRIES = 1 << (GroupElement.BASE_WINDOW_WIDTH - 2);
+    static final int LENGTH = 32 * (2 + 3 * (ROWS * COLUMNS + DOUBLE_ENTRIES));
+
+    private PrecomputedTables() {}
+
+    /**
+     * Loads the tables of a base point from the resource.
+     *
+     * @param curve the curve of the point.
+     * @param s the encoded point.
+     * @param precmp filled with the table for {@link GroupElement#scalarMultiply(byte[])}.
+     * @param dblPrecmp filled with the table for
+     *        {@link GroupElement#doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}.
+     * @return true if the tables were loaded, false if they must be computed.
+     */
+    static boolean load(Curve curve, byte[] s, GroupElement[][] precmp, GroupElement[] dblPrecmp) {
+        InputStream in = PrecomputedTables.class.getResourceAsStream(RESOURCE);
+        if (in == null)
+            return false;
+        try {
+            return read(in, curve, s, precmp, dblPrecmp);
+        } finally {
+            try { in.close(); } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Method is package private only so that tests run.
+     */
+    static boolean read(InputStream in, Curve curve, byte[] s, GroupElement[][] precmp, GroupElement[] dblPrecmp) {
+        if (curve.getField().getb() != 256 || precmp.length != ROWS || dblPrecmp.length != DOUBLE_ENTRIES)
+            return false;
+
+        byte[] data = new byte[LENGTH];
+        try {
+            DataInputStream din = new DataInputStream(in);
+            din.readFully(data);
+            if (din.read() != -1)
+                return false;
+        } catch (IOException e) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if (crc.getValue() != CRC)
+            return false;
+        if (!Arrays.equals(Arrays.copyOfRange(data, 0, 32), curve.getD().toByteArray())
+                || !Arrays.equals(Arrays.copyOfRange(data, 32, 64), s))
+            return false;
+
+        int off = 64;
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < COLUMNS; j++) {
+                precmp[i][j] = readPrecomp(curve, data, off);
+                off += 96;
+            }
+        }
+        for (int i = 0; i < DOUBLE_ENTRIES; i++) {
+            dblPrecmp[i] = readPrecomp(curve, data, off);
+            off += 96;
+        }
+        return true;
+    }
+
+    private static GroupElement readPrecomp(Curve curve, byte[] data, int off) {
+        Field f = curve.getField();
+        return GroupElement.precomp(curve,
+                f.fromByteArray(Arrays.copyOfRange(data, off, off + 32)),
+                f.fromByteArray(Arrays.copyOfRange(data, off + 32, off + 64)),
+                f.fromByteArray(Arrays.copyOfRange(data, off + 64, off + 96)));
+    }
+
+    /**
+     * Computes the tables of a base point and writes them in the format of
+     * the resource. The tables already attached to B, which may have been
+     * loaded from the resource, are not used.
+     * <p>
+     * Method is package private only so that tests and the generator run.
+     *
+     * @param B the base point.
+     * @param s the encoded point.
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(GroupElement B, byte[] s, OutputStream out) throws IOException {
+        out.write(B.curve.getD().toByteArray());
+        out.write(s);
+        for (GroupElement[] row : B.precomputeSingle()) {
+            for (GroupElement q : row) {
+                writePrecomp(q, out);
+            }
+        }
+        for (GroupElement q : B.precomputeDouble(DOUBLE_ENTRIES)) {
+            writePrecomp(q, out);
+        }
+    }
+
+    private static void writePrecomp(GroupElement q, OutputStream out) throws IOException {
+        out.write(q.X.toByteArray());
+        out.write(q.Y.toByteArray());
+        out.write(q.Z.toByteArray());
+    }
+}
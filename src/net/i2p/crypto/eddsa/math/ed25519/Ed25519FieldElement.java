@@ -44,16 +44,122 @@ public class Ed25519FieldElement extends FieldElement {
         this.t = t;
     }
 
-    private static final byte[] ZERO = new byte[32];
-
     /**
      * Gets a value indicating whether or not the field element is non-zero.
      *
      * @return 1 if it is non-zero, 0 otherwise.
      */
     public boolean isNonZero() {
-        final byte[] s = toByteArray();
-        return Utils.equal(s, ZERO) == 0;
+        return isZero(t) == 0;
+    }
+
+    /**
+     * Same as {@link Ed25519LittleEndianEncoding#isNegative(FieldElement)},
+     * without encoding the element.
+     */
+    @Override
+    public boolean isNegative() {
+        // The carry out of the lowest limb does not change its lowest bit
+        return ((t[0] + 19 * quotient(t)) & 1) != 0;
+    }
+
+    /**
+     * $q = \lfloor f / p \rfloor$, as in
+     * {@link Ed25519LittleEndianEncoding#encode(FieldElement)}.
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|f|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25}$, etc.
+     * </ul>
+     */
+    private static int quotient(final int[] f) {
+        int q = (19 * f[9] + (1 << 24)) >> 25;
+        for (int i = 0; i < 10; i++) {
+            q = (f[i] + q) >> ((i & 1) == 0 ? 26 : 25);
+        }
+        return q;
+    }
+
+    /**
+     * $h = f \bmod p$, with each limb of $h$ in $[0, 2^{26})$ or $[0, 2^{25})$.
+     * These are the limbs that {@link Ed25519LittleEndianEncoding#encode(FieldElement)}
+     * packs into bytes, so two elements are equal exactly when their reduced
+     * limbs are.
+     * <p>
+     * Can overlap $h$ with $f$.
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|f|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25}$, etc.
+     * </ul>
+     */
+    static void reduceInto(final int[] f, final int[] h) {
+        if (h != f)
+            System.arraycopy(f, 0, h, 0, 10);
+
+        // r = h - q * p = h - 2^255 * q + 19 * q
+        h[0] += 19 * quotient(h);
+        for (int i = 0; i < 9; i++) {
+            final int bits = (i & 1) == 0 ? 26 : 25;
+            final int c = h[i] >> bits;
+            h[i + 1] += c;
+            h[i] -= c << bits;
+        }
+        // Drop the 2^255 * q
+        h[9] &= (1 << 25) - 1;
+    }
+
+    /**
+     * Constant time.
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|f|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25}$, etc.
+     * </ul>
+     *
+     * @return 1 if $f = 0 \bmod p$, 0 otherwise.
+     */
+    static int isZero(final int[] f) {
+        // The limbs of reduceInto(f), one at a time
+        int c = 19 * quotient(f);
+        int x = 0;
+        for (int i = 0; i < 9; i++) {
+            final int bits = (i & 1) == 0 ? 26 : 25;
+            final int h = f[i] + c;
+            c = h >> bits;
+            x |= h - (c << bits);
+        }
+        x |= (f[9] + c) & ((1 << 25) - 1);
+        // The reduced limbs are not negative, so x | -x is negative iff x != 0
+        return ~(x | -x) >>> 31;
+    }
+
+    /**
+     * Constant time.
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|f|$ and $|g|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25},$ etc.
+     * </ul>
+     *
+     * @return 1 if $f = g \bmod p$, 0 otherwise.
+     */
+    static int equal(final int[] f, final int[] g) {
+        // Compares the limbs of reduceInto(f) and reduceInto(g). f - g could
+        // exceed the bounds above.
+        int cf = 19 * quotient(f);
+        int cg = 19 * quotient(g);
+        int x = 0;
+        for (int i = 0; i < 9; i++) {
+            final int bits = (i & 1) == 0 ? 26 : 25;
+            final int hf = f[i] + cf;
+            final int hg = g[i] + cg;
+            cf = hf >> bits;
+            cg = hg >> bits;
+            x |= (hf - (cf << bits)) ^ (hg - (cg << bits));
+        }
+        x |= ((f[9] + cf) ^ (g[9] + cg)) & ((1 << 25) - 1);
+        return ~(x | -x) >>> 31;
     }
 
     /**
@@ -75,12 +181,20 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The field element this + val.
      */
     public FieldElement add(FieldElement val) {
-        int[] g = ((Ed25519FieldElement)val).t;
         int[] h = new int[10];
+        addInto(t, ((Ed25519FieldElement)val).t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = f + g$, see {@link #add(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void addInto(int[] f, int[] g, int[] h) {
         for (int i = 0; i < 10; i++) {
-            h[i] = t[i] + g[i];
+            h[i] = f[i] + g[i];
         }
-        return new Ed25519FieldElement(f, h);
     }
 
     /**
@@ -104,12 +218,20 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The field element this - val.
      **/
     public FieldElement subtract(FieldElement val) {
-        int[] g = ((Ed25519FieldElement)val).t;
         int[] h = new int[10];
+        subtractInto(t, ((Ed25519FieldElement)val).t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = f - g$, see {@link #subtract(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void subtractInto(int[] f, int[] g, int[] h) {
         for (int i = 0; i < 10; i++) {
-            h[i] = t[i] - g[i];
+            h[i] = f[i] - g[i];
         }
-        return new Ed25519FieldElement(f, h);
     }
 
     /**
@@ -175,7 +297,17 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The (reasonably reduced) field element this * val.
      */
     public FieldElement multiply(FieldElement val) {
-        int[] g = ((Ed25519FieldElement)val).t;
+        int[] h = new int[10];
+        mulInto(t, ((Ed25519FieldElement)val).t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = f * g$, see {@link #multiply(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void mulInto(int[] f, int[] g, int[] h) {
         int g1_19 = 19 * g[1]; /* 1.959375*2^29 */
         int g2_19 = 19 * g[2]; /* 1.959375*2^30; still ok */
         int g3_19 = 19 * g[3];
@@ -185,110 +317,110 @@ public class Ed25519FieldElement extends FieldElement {
         int g7_19 = 19 * g[7];
         int g8_19 = 19 * g[8];
         int g9_19 = 19 * g[9];
-        int f1_2 = 2 * t[1];
-        int f3_2 = 2 * t[3];
-        int f5_2 = 2 * t[5];
-        int f7_2 = 2 * t[7];
-        int f9_2 = 2 * t[9];
-        long f0g0    = t[0] * (long) g[0];
-        long f0g1    = t[0] * (long) g[1];
-        long f0g2    = t[0] * (long) g[2];
-        long f0g3    = t[0] * (long) g[3];
-        long f0g4    = t[0] * (long) g[4];
-        long f0g5    = t[0] * (long) g[5];
-        long f0g6    = t[0] * (long) g[6];
-        long f0g7    = t[0] * (long) g[7];
-        long f0g8    = t[0] * (long) g[8];
-        long f0g9    = t[0] * (long) g[9];
-        long f1g0    = t[1] * (long) g[0];
+        int f1_2 = 2 * f[1];
+        int f3_2 = 2 * f[3];
+        int f5_2 = 2 * f[5];
+        int f7_2 = 2 * f[7];
+        int f9_2 = 2 * f[9];
+        long f0g0    = f[0] * (long) g[0];
+        long f0g1    = f[0] * (long) g[1];
+        long f0g2    = f[0] * (long) g[2];
+        long f0g3    = f[0] * (long) g[3];
+        long f0g4    = f[0] * (long) g[4];
+        long f0g5    = f[0] * (long) g[5];
+        long f0g6    = f[0] * (long) g[6];
+        long f0g7    = f[0] * (long) g[7];
+        long f0g8    = f[0] * (long) g[8];
+        long f0g9    = f[0] * (long) g[9];
+        long f1g0    = f[1] * (long) g[0];
         long f1g1_2  = f1_2 * (long) g[1];
-        long f1g2    = t[1] * (long) g[2];
+        long f1g2    = f[1] * (long) g[2];
         long f1g3_2  = f1_2 * (long) g[3];
-        long f1g4    = t[1] * (long) g[4];
+        long f1g4    = f[1] * (long) g[4];
         long f1g5_2  = f1_2 * (long) g[5];
-        long f1g6    = t[1] * (long) g[6];
+        long f1g6    = f[1] * (long) g[6];
         long f1g7_2  = f1_2 * (long) g[7];
-        long f1g8    = t[1] * (long) g[8];
+        long f1g8    = f[1] * (long) g[8];
         long f1g9_38 = f1_2 * (long) g9_19;
-        long f2g0    = t[2] * (long) g[0];
-        long f2g1    = t[2] * (long) g[1];
-        long f2g2    = t[2] * (long) g[2];
-        long f2g3    = t[2] * (long) g[3];
-        long f2g4    = t[2] * (long) g[4];
-        long f2g5    = t[2] * (long) g[5];
-        long f2g6    = t[2] * (long) g[6];
-        long f2g7    = t[2] * (long) g[7];
-        long f2g8_19 = t[2] * (long) g8_19;
-        long f2g9_19 = t[2] * (long) g9_19;
-        long f3g0    = t[3] * (long) g[0];
+        long f2g0    = f[2] * (long) g[0];
+        long f2g1    = f[2] * (long) g[1];
+        long f2g2    = f[2] * (long) g[2];
+        long f2g3    = f[2] * (long) g[3];
+        long f2g4    = f[2] * (long) g[4];
+        long f2g5    = f[2] * (long) g[5];
+        long f2g6    = f[2] * (long) g[6];
+        long f2g7    = f[2] * (long) g[7];
+        long f2g8_19 = f[2] * (long) g8_19;
+        long f2g9_19 = f[2] * (long) g9_19;
+        long f3g0    = f[3] * (long) g[0];
         long f3g1_2  = f3_2 * (long) g[1];
-        long f3g2    = t[3] * (long) g[2];
+        long f3g2    = f[3] * (long) g[2];
         long f3g3_2  = f3_2 * (long) g[3];
-        long f3g4    = t[3] * (long) g[4];
+        long f3g4    = f[3] * (long) g[4];
         long f3g5_2  = f3_2 * (long) g[5];
-        long f3g6    = t[3] * (long) g[6];
+        long f3g6    = f[3] * (long) g[6];
         long f3g7_38 = f3_2 * (long) g7_19;
-        long f3g8_19 = t[3] * (long) g8_19;
+        long f3g8_19 = f[3] * (long) g8_19;
         long f3g9_38 = f3_2 * (long) g9_19;
-        long f4g0    = t[4] * (long) g[0];
-        long f4g1    = t[4] * (long) g[1];
-        long f4g2    = t[4] * (long) g[2];
-        long f4g3    = t[4] * (long) g[3];
-        long f4g4    = t[4] * (long) g[4];
-        long f4g5    = t[4] * (long) g[5];
-        long f4g6_19 = t[4] * (long) g6_19;
-        long f4g7_19 = t[4] * (long) g7_19;
-        long f4g8_19 = t[4] * (long) g8_19;
-        long f4g9_19 = t[4] * (long) g9_19;
-        long f5g0    = t[5] * (long) g[0];
+        long f4g0    = f[4] * (long) g[0];
+        long f4g1    = f[4] * (long) g[1];
+        long f4g2    = f[4] * (long) g[2];
+        long f4g3    = f[4] * (long) g[3];
+        long f4g4    = f[4] * (long) g[4];
+        long f4g5    = f[4] * (long) g[5];
+        long f4g6_19 = f[4] * (long) g6_19;
+        long f4g7_19 = f[4] * (long) g7_19;
+        long f4g8_19 = f[4] * (long) g8_19;
+        long f4g9_19 = f[4] * (long) g9_19;
+        long f5g0    = f[5] * (long) g[0];
         long f5g1_2  = f5_2 * (long) g[1];
-        long f5g2    = t[5] * (long) g[2];
+        long f5g2    = f[5] * (long) g[2];
         long f5g3_2  = f5_2 * (long) g[3];
-        long f5g4    = t[5] * (long) g[4];
+        long f5g4    = f[5] * (long) g[4];
         long f5g5_38 = f5_2 * (long) g5_19;
-        long f5g6_19 = t[5] * (long) g6_19;
+        long f5g6_19 = f[5] * (long) g6_19;
         long f5g7_38 = f5_2 * (long) g7_19;
-        long f5g8_19 = t[5] * (long) g8_19;
+        long f5g8_19 = f[5] * (long) g8_19;
         long f5g9_38 = f5_2 * (long) g9_19;
-        long f6g0    = t[6] * (long) g[0];
-        long f6g1    = t[6] * (long) g[1];
-        long f6g2    = t[6] * (long) g[2];
-        long f6g3    = t[6] * (long) g[3];
-        long f6g4_19 = t[6] * (long) g4_19;
-        long f6g5_19 = t[6] * (long) g5_19;
-        long f6g6_19 = t[6] * (long) g6_19;
-        long f6g7_19 = t[6] * (long) g7_19;
-        long f6g8_19 = t[6] * (long) g8_19;
-        long f6g9_19 = t[6] * (long) g9_19;
-        long f7g0    = t[7] * (long) g[0];
+        long f6g0    = f[6] * (long) g[0];
+        long f6g1    = f[6] * (long) g[1];
+        long f6g2    = f[6] * (long) g[2];
+        long f6g3    = f[6] * (long) g[3];
+        long f6g4_19 = f[6] * (long) g4_19;
+        long f6g5_19 = f[6] * (long) g5_19;
+        long f6g6_19 = f[6] * (long) g6_19;
+        long f6g7_19 = f[6] * (long) g7_19;
+        long f6g8_19 = f[6] * (long) g8_19;
+        long f6g9_19 = f[6] * (long) g9_19;
+        long f7g0    = f[7] * (long) g[0];
         long f7g1_2  = f7_2 * (long) g[1];
-        long f7g2    = t[7] * (long) g[2];
+        long f7g2    = f[7] * (long) g[2];
         long f7g3_38 = f7_2 * (long) g3_19;
-        long f7g4_19 = t[7] * (long) g4_19;
+        long f7g4_19 = f[7] * (long) g4_19;
         long f7g5_38 = f7_2 * (long) g5_19;
-        long f7g6_19 = t[7] * (long) g6_19;
+        long f7g6_19 = f[7] * (long) g6_19;
         long f7g7_38 = f7_2 * (long) g7_19;
-        long f7g8_19 = t[7] * (long) g8_19;
+        long f7g8_19 = f[7] * (long) g8_19;
         long f7g9_38 = f7_2 * (long) g9_19;
-        long f8g0    = t[8] * (long) g[0];
-        long f8g1    = t[8] * (long) g[1];
-        long f8g2_19 = t[8] * (long) g2_19;
-        long f8g3_19 = t[8] * (long) g3_19;
-        long f8g4_19 = t[8] * (long) g4_19;
-        long f8g5_19 = t[8] * (long) g5_19;
-        long f8g6_19 = t[8] * (long) g6_19;
-        long f8g7_19 = t[8] * (long) g7_19;
-        long f8g8_19 = t[8] * (long) g8_19;
-        long f8g9_19 = t[8] * (long) g9_19;
-        long f9g0    = t[9] * (long) g[0];
+        long f8g0    = f[8] * (long) g[0];
+        long f8g1    = f[8] * (long) g[1];
+        long f8g2_19 = f[8] * (long) g2_19;
+        long f8g3_19 = f[8] * (long) g3_19;
+        long f8g4_19 = f[8] * (long) g4_19;
+        long f8g5_19 = f[8] * (long) g5_19;
+        long f8g6_19 = f[8] * (long) g6_19;
+        long f8g7_19 = f[8] * (long) g7_19;
+        long f8g8_19 = f[8] * (long) g8_19;
+        long f8g9_19 = f[8] * (long) g9_19;
+        long f9g0    = f[9] * (long) g[0];
         long f9g1_38 = f9_2 * (long) g1_19;
-        long f9g2_19 = t[9] * (long) g2_19;
+        long f9g2_19 = f[9] * (long) g2_19;
         long f9g3_38 = f9_2 * (long) g3_19;
-        long f9g4_19 = t[9] * (long) g4_19;
+        long f9g4_19 = f[9] * (long) g4_19;
         long f9g5_38 = f9_2 * (long) g5_19;
-        long f9g6_19 = t[9] * (long) g6_19;
+        long f9g6_19 = f[9] * (long) g6_19;
         long f9g7_38 = f9_2 * (long) g7_19;
-        long f9g8_19 = t[9] * (long) g8_19;
+        long f9g8_19 = f[9] * (long) g8_19;
         long f9g9_38 = f9_2 * (long) g9_19;
 
         /**
@@ -373,7 +505,6 @@ public class Ed25519FieldElement extends FieldElement {
         /* |h0| <= 2^25; from now on fits into int32 unchanged */
         /* |h1| <= 1.01*2^24 */
 
-        int[] h = new int[10];
         h[0] = (int) h0;
         h[1] = (int) h1;
         h[2] = (int) h2;
@@ -384,7 +515,6 @@ public class Ed25519FieldElement extends FieldElement {
         h[7] = (int) h7;
         h[8] = (int) h8;
         h[9] = (int) h9;
-        return new Ed25519FieldElement(f, h);
     }
 
     /**
@@ -406,16 +536,27 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The (reasonably reduced) square of this field element.
      */
     public FieldElement square() {
-        int f0 = t[0];
-        int f1 = t[1];
-        int f2 = t[2];
-        int f3 = t[3];
-        int f4 = t[4];
-        int f5 = t[5];
-        int f6 = t[6];
-        int f7 = t[7];
-        int f8 = t[8];
-        int f9 = t[9];
+        int[] h = new int[10];
+        squareInto(t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = f * f$, see {@link #square()}.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareInto(int[] f, int[] h) {
+        int f0 = f[0];
+        int f1 = f[1];
+        int f2 = f[2];
+        int f3 = f[3];
+        int f4 = f[4];
+        int f5 = f[5];
+        int f6 = f[6];
+        int f7 = f[7];
+        int f8 = f[8];
+        int f9 = f[9];
         int f0_2 = 2 * f0;
         int f1_2 = 2 * f1;
         int f2_2 = 2 * f2;
@@ -529,7 +670,6 @@ public class Ed25519FieldElement extends FieldElement {
 
         carry0 = (h0 + (long) (1<<25)) >> 26; h1 += carry0; h0 -= carry0 << 26;
 
-        int[] h = new int[10];
         h[0] = (int) h0;
         h[1] = (int) h1;
         h[2] = (int) h2;
@@ -540,7 +680,6 @@ public class Ed25519FieldElement extends FieldElement {
         h[7] = (int) h7;
         h[8] = (int) h8;
         h[9] = (int) h9;
-        return new Ed25519FieldElement(f, h);
     }
 
     /**
@@ -562,16 +701,27 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The (reasonably reduced) square of this field element times 2.
      */
     public FieldElement squareAndDouble() {
-        int f0 = t[0];
-        int f1 = t[1];
-        int f2 = t[2];
-        int f3 = t[3];
-        int f4 = t[4];
-        int f5 = t[5];
-        int f6 = t[6];
-        int f7 = t[7];
-        int f8 = t[8];
-        int f9 = t[9];
+        int[] h = new int[10];
+        squareAndDoubleInto(t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = 2 * f * f$, see {@link #squareAndDouble()}.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareAndDoubleInto(int[] f, int[] h) {
+        int f0 = f[0];
+        int f1 = f[1];
+        int f2 = f[2];
+        int f3 = f[3];
+        int f4 = f[4];
+        int f5 = f[5];
+        int f6 = f[6];
+        int f7 = f[7];
+        int f8 = f[8];
+        int f9 = f[9];
         int f0_2 = 2 * f0;
         int f1_2 = 2 * f1;
         int f2_2 = 2 * f2;
@@ -691,7 +841,6 @@ public class Ed25519FieldElement extends FieldElement {
 
         carry0 = (h0 + (long) (1<<25)) >> 26; h1 += carry0; h0 -= carry0 << 26;
 
-        int[] h = new int[10];
         h[0] = (int) h0;
         h[1] = (int) h1;
         h[2] = (int) h2;
@@ -702,128 +851,141 @@ public class Ed25519FieldElement extends FieldElement {
         h[7] = (int) h7;
         h[8] = (int) h8;
         h[9] = (int) h9;
-        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = f^{(2^n)}$, by squaring $n$ times.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareNInto(int[] f, int n, int[] h) {
+        squareInto(f, h);
+        for (int i = 1; i < n; ++i) {
+            squareInto(h, h);
+        }
     }
 
     /**
      * Invert this field element.
      * <p>
-     * The inverse is found via Fermat's little theorem:<br>
-     * $a^p \cong a \mod p$ and therefore $a^{(p-2)} \cong a^{-1} \mod p$
+     * The inverse is found with the constant-time safegcd algorithm, see
+     * {@link Ed25519SafeGcd}, which is about three times as fast as
+     * {@link #invertInto(int[], int[])}.
      *
      * @return The inverse of this field element.
      */
     public FieldElement invert() {
-        FieldElement t0, t1, t2, t3;
+        int[] h = new int[10];
+        Ed25519SafeGcd.invertInto(t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = 1/z$
+     * <p>
+     * The inverse is found via Fermat's little theorem:<br>
+     * $a^p \cong a \mod p$ and therefore $a^{(p-2)} \cong a^{-1} \mod p$
+     * <p>
+     * Can overlap $h$ with $z$.
+     */
+    static void invertInto(int[] z, int[] h) {
+        int[] t0 = new int[10];
+        int[] t1 = new int[10];
+        int[] t2 = new int[10];
+        int[] t3 = new int[10];
 
         // 2 == 2 * 1
-        t0 = square();
+        squareInto(z, t0);
 
         // 4 == 2 * 2
-        t1 = t0.square();
+        squareInto(t0, t1);
 
         // 8 == 2 * 4
-        t1 = t1.square();
+        squareInto(t1, t1);
 
         // 9 == 8 + 1
-        t1 = multiply(t1);
+        mulInto(z, t1, t1);
 
         // 11 == 9 + 2
-        t0 = t0.multiply(t1);
+        mulInto(t0, t1, t0);
 
         // 22 == 2 * 11
-        t2 = t0.square();
+        squareInto(t0, t2);
 
         // 31 == 22 + 9
-        t1 = t1.multiply(t2);
+        mulInto(t1, t2, t1);
 
         // 2^6 - 2^1
-        t2 = t1.square();
+        squareInto(t1, t2);
 
         // 2^10 - 2^5
-        for (int i = 1; i < 5; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 4, t2);
 
         // 2^10 - 2^0
-        t1 = t2.multiply(t1);
+        mulInto(t2, t1, t1);
 
         // 2^11 - 2^1
-        t2 = t1.square();
+        squareInto(t1, t2);
 
         // 2^20 - 2^10
-        for (int i = 1; i < 10; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 9, t2);
 
         // 2^20 - 2^0
-        t2 = t2.multiply(t1);
+        mulInto(t2, t1, t2);
 
         // 2^21 - 2^1
-        t3 = t2.square();
+        squareInto(t2, t3);
 
         // 2^40 - 2^20
-        for (int i = 1; i < 20; ++i) {
-            t3 = t3.square();
-        }
+        squareNInto(t3, 19, t3);
 
         // 2^40 - 2^0
-        t2 = t3.multiply(t2);
+        mulInto(t3, t2, t2);
 
         // 2^41 - 2^1
-        t2 = t2.square();
+        squareInto(t2, t2);
 
         // 2^50 - 2^10
-        for (int i = 1; i < 10; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 9, t2);
 
         // 2^50 - 2^0
-        t1 = t2.multiply(t1);
+        mulInto(t2, t1, t1);
 
         // 2^51 - 2^1
-        t2 = t1.square();
+        squareInto(t1, t2);
 
         // 2^100 - 2^50
-        for (int i = 1; i < 50; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 49, t2);
 
         // 2^100 - 2^0
-        t2 = t2.multiply(t1);
+        mulInto(t2, t1, t2);
 
         // 2^101 - 2^1
-        t3 = t2.square();
+        squareInto(t2, t3);
 
         // 2^200 - 2^100
-        for (int i = 1; i < 100; ++i) {
-            t3 = t3.square();
-        }
+        squareNInto(t3, 99, t3);
 
         // 2^200 - 2^0
-        t2 = t3.multiply(t2);
+        mulInto(t3, t2, t2);
 
         // 2^201 - 2^1
-        t2 = t2.square();
+        squareInto(t2, t2);
 
         // 2^250 - 2^50
-        for (int i = 1; i < 50; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 49, t2);
 
         // 2^250 - 2^0
-        t1 = t2.multiply(t1);
+        mulInto(t2, t1, t1);
 
         // 2^251 - 2^1
-        t1 = t1.square();
+        squareInto(t1, t1);
 
         // 2^255 - 2^5
-        for (int i = 1; i < 5; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 4, t1);
 
         // 2^255 - 21
-        return t1.multiply(t0);
+        mulInto(t1, t0, h);
     }
 
     /**
@@ -835,114 +997,170 @@ public class Ed25519FieldElement extends FieldElement {
      * @return This field element to the power of $(2^{252} - 3)$.
      */
     public FieldElement pow22523() {
-        FieldElement t0, t1, t2;
+        int[] h = new int[10];
+        pow22523Into(t, h);
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * $h = z^{(2^{252} - 3)}$, see {@link #pow22523()}.
+     * <p>
+     * Can overlap $h$ with $z$.
+     */
+    static void pow22523Into(int[] z, int[] h) {
+        int[] t0 = new int[10];
+        int[] t1 = new int[10];
+        int[] t2 = new int[10];
 
         // 2 == 2 * 1
-        t0 = square();
+        squareInto(z, t0);
 
         // 4 == 2 * 2
-        t1 = t0.square();
+        squareInto(t0, t1);
 
         // 8 == 2 * 4
-        t1 = t1.square();
+        squareInto(t1, t1);
 
         // z9 = z1*z8
-        t1 = multiply(t1);
+        mulInto(z, t1, t1);
 
         // 11 == 9 + 2
-        t0 = t0.multiply(t1);
+        mulInto(t0, t1, t0);
 
         // 22 == 2 * 11
-        t0 = t0.square();
+        squareInto(t0, t0);
 
         // 31 == 22 + 9
-        t0 = t1.multiply(t0);
+        mulInto(t1, t0, t0);
 
         // 2^6 - 2^1
-        t1 = t0.square();
+        squareInto(t0, t1);
 
         // 2^10 - 2^5
-        for (int i = 1; i < 5; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 4, t1);
 
         // 2^10 - 2^0
-        t0 = t1.multiply(t0);
+        mulInto(t1, t0, t0);
 
         // 2^11 - 2^1
-        t1 = t0.square();
+        squareInto(t0, t1);
 
         // 2^20 - 2^10
-        for (int i = 1; i < 10; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 9, t1);
 
         // 2^20 - 2^0
-        t1 = t1.multiply(t0);
+        mulInto(t1, t0, t1);
 
         // 2^21 - 2^1
-        t2 = t1.square();
+        squareInto(t1, t2);
 
         // 2^40 - 2^20
-        for (int i = 1; i < 20; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 19, t2);
 
         // 2^40 - 2^0
-        t1 = t2.multiply(t1);
+        mulInto(t2, t1, t1);
 
         // 2^41 - 2^1
-        t1 = t1.square();
+        squareInto(t1, t1);
 
         // 2^50 - 2^10
-        for (int i = 1; i < 10; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 9, t1);
 
         // 2^50 - 2^0
-        t0 = t1.multiply(t0);
+        mulInto(t1, t0, t0);
 
         // 2^51 - 2^1
-        t1 = t0.square();
+        squareInto(t0, t1);
 
         // 2^100 - 2^50
-        for (int i = 1; i < 50; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 49, t1);
 
         // 2^100 - 2^0
-        t1 = t1.multiply(t0);
+        mulInto(t1, t0, t1);
 
         // 2^101 - 2^1
-        t2 = t1.square();
+        squareInto(t1, t2);
 
         // 2^200 - 2^100
-        for (int i = 1; i < 100; ++i) {
-            t2 = t2.square();
-        }
+        squareNInto(t2, 99, t2);
 
         // 2^200 - 2^0
-        t1 = t2.multiply(t1);
+        mulInto(t2, t1, t1);
 
         // 2^201 - 2^1
-        t1 = t1.square();
+        squareInto(t1, t1);
 
         // 2^250 - 2^50
-        for (int i = 1; i < 50; ++i) {
-            t1 = t1.square();
-        }
+        squareNInto(t1, 49, t1);
 
         // 2^250 - 2^0
-        t0 = t1.multiply(t0);
+        mulInto(t1, t0, t0);
 
         // 2^251 - 2^1
-        t0 = t0.square();
+        squareInto(t0, t0);
 
         // 2^252 - 2^2
-        t0 = t0.square();
+        squareInto(t0, t0);
 
         // 2^252 - 3
-        return multiply(t0);
+        mulInto(z, t0, h);
+    }
+
+    /**
+     * Same as {@link FieldElement#sqrtRatio(FieldElement, FieldElement)},
+     * computed on the limbs. It allocates the result, two scratch arrays and
+     * the three of {@link #pow22523Into(int[], int[])}, and makes its checks
+     * on the limbs rather than on encodings.
+     * <p>
+     * This is not measurably faster than the generic version, so point
+     * decoding is no faster with it: about 90% of either is the
+     * exponentiation in pow22523Into, which both need. See
+     * Ed25519DecodeBenchmark in the tests.
+     */
+    @Override
+    public FieldElement sqrtRatio(FieldElement val, FieldElement sqrtM1) {
+        final int[] u = t;
+        final int[] v = ((Ed25519FieldElement) val).t;
+        final int[] v3 = new int[10];
+        final int[] x = new int[10];
+        final int[] check = new int[10];
+
+        // v3 = v^3
+        squareInto(v, v3);
+        mulInto(v3, v, v3);
+
+        // x = (v3^2)vu, aka x = uv^7
+        squareInto(v3, x);
+        mulInto(x, v, x);
+        mulInto(x, u, x);
+
+        // x = (uv^7)^((q-5)/8)
+        pow22523Into(x, x);
+
+        // x = uv^3(uv^7)^((q-5)/8)
+        mulInto(x, v3, x);
+        mulInto(x, u, x);
+
+        // vx^2 = u or vx^2 = -u?
+        squareInto(x, check);
+        mulInto(check, v, check);
+        final int correct = equal(check, u);
+        // v3 is free until x * sqrt(-1) below; check + u could exceed the
+        // bounds of isZero(), so compare check with -u instead
+        for (int i = 0; i < 10; i++) {
+            v3[i] = -u[i];
+        }
+        final int flipped = equal(check, v3);
+        if ((correct | flipped) == 0)
+            return null;
+
+        // x = x * sqrt(-1) if vx^2 = -u
+        mulInto(x, ((Ed25519FieldElement) sqrtM1).t, v3);
+        final int mask = -flipped;
+        for (int i = 0; i < 10; i++) {
+            x[i] ^= (x[i] ^ v3[i]) & mask;
+        }
+        return new Ed25519FieldElement(f, x);
     }
 
     /**
@@ -978,7 +1196,7 @@ public class Ed25519FieldElement extends FieldElement {
         if (!(obj instanceof Ed25519FieldElement))
             return false;
         Ed25519FieldElement fe = (Ed25519FieldElement) obj;
-        return 1==Utils.equal(toByteArray(), fe.toByteArray());
+        return 1==equal(t, fe.t);
     }
 
     @Override
@@ -0,0 +1,105 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import java.lang.reflect.InvocationTargetException;
+
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.GroupElement;
+
+/**
+ * Evaluates several independent Ed25519 double scalar multiplications
+ * together.
+ * <p>
+ * {@link #getInstance()} returns an engine on the Vector API if the runtime
+ * has it (Java 17 or later, with
+ * <code>--add-modules jdk.incubator.vector</code>), which runs one
+ * multiplication per vector lane. Otherwise it returns an engine that runs
+ * them one after another with {@link Ed25519Point}.
+ * <p>
+ * The vector engine is only in the Java 17 part of the multi-release jar,
+ * so it is never used when the classes are loaded from a directory, as in
+ * the unit tests. Ed25519VectorLaneEngineIT runs against the packaged jar
+ * to cover it.
+ */
+public abstract class Ed25519LaneEngine {
+    private static final Ed25519LaneEngine INSTANCE = load();
+
+    private static Ed25519LaneEngine load() {
+        try {
+            Class<?> c = Class.forName("net.i2p.crypto.eddsa.math.ed25519.Ed25519VectorLaneEngine");
+            return (Ed25519LaneEngine) c.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            // Not on Java 17, or not loaded from the multi-release jar
+        } catch (InvocationTargetException e) {
+            // No vector lanes on this machine
+        } catch (NoSuchMethodException e) {
+            // These are the rest of ReflectiveOperationException, which is not in Java 6
+        } catch (InstantiationException e) {
+        } catch (IllegalAccessException e) {
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+        }
+        return new ScalarLaneEngine();
+    }
+
+    /**
+     * @return the engine to use on this runtime.
+     */
+    public static Ed25519LaneEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the number of multiplications that are evaluated together.
+     */
+    public abstract int getLanes();
+
+    /**
+     * $r_i = a_i * A_i + b_i * B$ for every $i$, see
+     * {@link Ed25519Point#doubleScalarMultiplyVariableTime(Curve, byte[], GroupElement[], byte[], GroupElement[])}.
+     * <p>
+     * Variable time. Only use this on public values.
+     *
+     * @param curve the curve of the $A_i$ and $B$
+     * @param aslides the $a_i$ in sliding window representation
+     * @param aTables the odd multiples of each $A_i$, in PRECOMP representation
+     * @param bslides the $b_i$ in sliding window representation
+     * @param bTable the odd multiples of $B$, in PRECOMP representation
+     * @param out receives the $r_i$ in P2 representation
+     */
+    public abstract void doubleScalarMultiplyVariableTime(Curve curve,
+            byte[][] aslides, GroupElement[][] aTables,
+            byte[][] bslides, GroupElement[] bTable,
+            GroupElement[] out);
+
+    /**
+     * The fallback, one multiplication at a time.
+     */
+    static final class ScalarLaneEngine extends Ed25519LaneEngine {
+        @Override
+        public int getLanes() {
+            return 1;
+        }
+
+        @Override
+        public void doubleScalarMultiplyVariableTime(final Curve curve,
+                final byte[][] aslides, final GroupElement[][] aTables,
+                final byte[][] bslides, final GroupElement[] bTable,
+                final GroupElement[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = Ed25519Point.doubleScalarMultiplyVariableTime(curve,
+                        aslides[i], aTables[i], bslides[i], bTable);
+            }
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.*;
+
+import java.util.Arrays;
+
+/**
+ * Class to represent a field element of the finite field $p = 2^{255} - 19$ elements,
+ * using 64-bit limbs.
+ * <p>
+ * An element $t$, entries $t[0] \dots t[4]$, represents the integer
+ * $t[0]+2^{51} t[1]+2^{102} t[2]+2^{153} t[3]+2^{204} t[4]$.
+ * The limbs are always non-negative. Every operation leaves them at most
+ * $2^{51}$, and expects the same of its inputs.
+ * <p>
+ * Products of two limbs need up to 113 bits, so the high half is taken from
+ * {@link MultiplyHigh}. This makes 25 limb products per multiplication,
+ * against 100 for {@link Ed25519FieldElement}.
+ */
+public class Ed25519LongFieldElement extends FieldElement {
+    static final long MASK = (1L << 51) - 1;
+
+    /**
+     * Variable is package private for encoding.
+     */
+    final long[] t;
+
+    /**
+     * Creates a field element.
+     *
+     * @param f The underlying field, must be the finite field with $p = 2^{255} - 19$ elements
+     * @param t The radix-$2^{51}$ representation of the field element.
+     */
+    public Ed25519LongFieldElement(Field f, long[] t) {
+        super(f);
+        if (t.length != 5)
+            throw new IllegalArgumentException("Invalid radix-2^51 representation");
+        this.t = t;
+    }
+
+    private static final byte[] ZERO = new byte[32];
+
+    /**
+     * Gets a value indicating whether or not the field element is non-zero.
+     *
+     * @return 1 if it is non-zero, 0 otherwise.
+     */
+    public boolean isNonZero() {
+        final byte[] s = toByteArray();
+        return Utils.equal(s, ZERO) == 0;
+    }
+
+    /**
+     * Propagates the carries of $h$, folding the carry out of $h_4$ back
+     * into $h_0$ times 19.
+     * <p>
+     * Preconditions: $0 \le h_i \lt 2^{63}$.
+     */
+    private static void carry(long h0, long h1, long h2, long h3, long h4, long[] h) {
+        h1 += h0 >>> 51; h0 &= MASK;
+        h2 += h1 >>> 51; h1 &= MASK;
+        h3 += h2 >>> 51; h2 &= MASK;
+        h4 += h3 >>> 51; h3 &= MASK;
+        h0 += 19 * (h4 >>> 51); h4 &= MASK;
+        h1 += h0 >>> 51; h0 &= MASK;
+        h[0] = h0;
+        h[1] = h1;
+        h[2] = h2;
+        h[3] = h3;
+        h[4] = h4;
+    }
+
+    /**
+     * $h = f + g$
+     *
+     * @param val The field element to add.
+     * @return The field element this + val.
+     */
+    public FieldElement add(FieldElement val) {
+        long[] h = new long[5];
+        addInto(t, ((Ed25519LongFieldElement)val).t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f + g$, see {@link #add(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void addInto(long[] f, long[] g, long[] h) {
+        carry(f[0] + g[0], f[1] + g[1], f[2] + g[2], f[3] + g[3], f[4] + g[4], h);
+    }
+
+    /**
+     * $h = f - g$
+     * <p>
+     * $2p$ is added first so that no limb goes negative.
+     *
+     * @param val The field element to subtract.
+     * @return The field element this - val.
+     */
+    public FieldElement subtract(FieldElement val) {
+        long[] h = new long[5];
+        subtractInto(t, ((Ed25519LongFieldElement)val).t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f - g$, see {@link #subtract(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void subtractInto(long[] f, long[] g, long[] h) {
+        // 2p = (2^52 - 38) + 2^51 (2^52 - 2) + ... + 2^204 (2^52 - 2)
+        carry(f[0] + 0xFFFFFFFFFFFDAL - g[0],
+              f[1] + 0xFFFFFFFFFFFFEL - g[1],
+              f[2] + 0xFFFFFFFFFFFFEL - g[2],
+              f[3] + 0xFFFFFFFFFFFFEL - g[3],
+              f[4] + 0xFFFFFFFFFFFFEL - g[4], h);
+    }
+
+    /**
+     * $h = -f$
+     *
+     * @return The field element (-1) * this.
+     */
+    public FieldElement negate() {
+        long[] h = new long[5];
+        subtractInto(new long[5], t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f * g$
+     *
+     * @param val The field element to multiply.
+     * @return The (reasonably reduced) field element this * val.
+     */
+    public FieldElement multiply(FieldElement val) {
+        long[] h = new long[5];
+        mulInto(t, ((Ed25519LongFieldElement)val).t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f * g$, see {@link #multiply(FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     * <p>
+     * Each product $f_i g_j$ is split at bit 51 into a low and a high part.
+     * The low parts are summed into column $i+j$ and the high parts into
+     * column $i+j+1$; columns at or above 5 are folded back times 19 since
+     * $2^{255} \cong 19 \mod p$. With limbs at most $2^{51}$ no column can
+     * overflow.
+     */
+    static void mulInto(long[] f, long[] g, long[] h) {
+        final long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        final long g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4];
+        final long g1_19 = 19 * g1;
+        final long g2_19 = 19 * g2;
+        final long g3_19 = 19 * g3;
+        final long g4_19 = 19 * g4;
+        long lo;
+        long c0l, c1l, c2l, c3l, c4l;
+        long c0h, c1h, c2h, c3h, c4h;
+        lo = f0 * g0; c0l = lo & MASK; c0h = (MultiplyHigh.multiplyHigh(f0, g0) << 13) | (lo >>> 51);
+        lo = f1 * g4_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f1, g4_19) << 13) | (lo >>> 51);
+        lo = f2 * g3_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f2, g3_19) << 13) | (lo >>> 51);
+        lo = f3 * g2_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f3, g2_19) << 13) | (lo >>> 51);
+        lo = f4 * g1_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f4, g1_19) << 13) | (lo >>> 51);
+        lo = f0 * g1; c1l = lo & MASK; c1h = (MultiplyHigh.multiplyHigh(f0, g1) << 13) | (lo >>> 51);
+        lo = f1 * g0; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f1, g0) << 13) | (lo >>> 51);
+        lo = f2 * g4_19; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f2, g4_19) << 13) | (lo >>> 51);
+        lo = f3 * g3_19; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f3, g3_19) << 13) | (lo >>> 51);
+        lo = f4 * g2_19; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f4, g2_19) << 13) | (lo >>> 51);
+        lo = f0 * g2; c2l = lo & MASK; c2h = (MultiplyHigh.multiplyHigh(f0, g2) << 13) | (lo >>> 51);
+        lo = f1 * g1; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f1, g1) << 13) | (lo >>> 51);
+        lo = f2 * g0; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f2, g0) << 13) | (lo >>> 51);
+        lo = f3 * g4_19; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f3, g4_19) << 13) | (lo >>> 51);
+        lo = f4 * g3_19; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f4, g3_19) << 13) | (lo >>> 51);
+        lo = f0 * g3; c3l = lo & MASK; c3h = (MultiplyHigh.multiplyHigh(f0, g3) << 13) | (lo >>> 51);
+        lo = f1 * g2; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f1, g2) << 13) | (lo >>> 51);
+        lo = f2 * g1; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f2, g1) << 13) | (lo >>> 51);
+        lo = f3 * g0; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f3, g0) << 13) | (lo >>> 51);
+        lo = f4 * g4_19; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f4, g4_19) << 13) | (lo >>> 51);
+        lo = f0 * g4; c4l = lo & MASK; c4h = (MultiplyHigh.multiplyHigh(f0, g4) << 13) | (lo >>> 51);
+        lo = f1 * g3; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f1, g3) << 13) | (lo >>> 51);
+        lo = f2 * g2; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f2, g2) << 13) | (lo >>> 51);
+        lo = f3 * g1; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f3, g1) << 13) | (lo >>> 51);
+        lo = f4 * g0; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f4, g0) << 13) | (lo >>> 51);
+        carry(c0l + 19 * c4h, c1l + c0h, c2l + c1h, c3l + c2h, c4l + c3h, h);
+    }
+
+    /**
+     * $h = f * f$
+     *
+     * @return The (reasonably reduced) square of this field element.
+     */
+    public FieldElement square() {
+        long[] h = new long[5];
+        squareInto(t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f * f$, see {@link #square()}.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareInto(long[] f, long[] h) {
+        final long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        final long f0_2 = 2 * f0;
+        final long f1_2 = 2 * f1;
+        final long f2_2 = 2 * f2;
+        final long f3_2 = 2 * f3;
+        final long f3_19 = 19 * f3;
+        final long f4_19 = 19 * f4;
+        long lo;
+        long c0l, c1l, c2l, c3l, c4l;
+        long c0h, c1h, c2h, c3h, c4h;
+        lo = f0 * f0; c0l = lo & MASK; c0h = (MultiplyHigh.multiplyHigh(f0, f0) << 13) | (lo >>> 51);
+        lo = f1_2 * f4_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f1_2, f4_19) << 13) | (lo >>> 51);
+        lo = f2_2 * f3_19; c0l += lo & MASK; c0h += (MultiplyHigh.multiplyHigh(f2_2, f3_19) << 13) | (lo >>> 51);
+        lo = f0_2 * f1; c1l = lo & MASK; c1h = (MultiplyHigh.multiplyHigh(f0_2, f1) << 13) | (lo >>> 51);
+        lo = f2_2 * f4_19; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f2_2, f4_19) << 13) | (lo >>> 51);
+        lo = f3 * f3_19; c1l += lo & MASK; c1h += (MultiplyHigh.multiplyHigh(f3, f3_19) << 13) | (lo >>> 51);
+        lo = f0_2 * f2; c2l = lo & MASK; c2h = (MultiplyHigh.multiplyHigh(f0_2, f2) << 13) | (lo >>> 51);
+        lo = f1 * f1; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f1, f1) << 13) | (lo >>> 51);
+        lo = f3_2 * f4_19; c2l += lo & MASK; c2h += (MultiplyHigh.multiplyHigh(f3_2, f4_19) << 13) | (lo >>> 51);
+        lo = f0_2 * f3; c3l = lo & MASK; c3h = (MultiplyHigh.multiplyHigh(f0_2, f3) << 13) | (lo >>> 51);
+        lo = f1_2 * f2; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f1_2, f2) << 13) | (lo >>> 51);
+        lo = f4 * f4_19; c3l += lo & MASK; c3h += (MultiplyHigh.multiplyHigh(f4, f4_19) << 13) | (lo >>> 51);
+        lo = f0_2 * f4; c4l = lo & MASK; c4h = (MultiplyHigh.multiplyHigh(f0_2, f4) << 13) | (lo >>> 51);
+        lo = f1_2 * f3; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f1_2, f3) << 13) | (lo >>> 51);
+        lo = f2 * f2; c4l += lo & MASK; c4h += (MultiplyHigh.multiplyHigh(f2, f2) << 13) | (lo >>> 51);
+        carry(c0l + 19 * c4h, c1l + c0h, c2l + c1h, c3l + c2h, c4l + c3h, h);
+    }
+
+    /**
+     * $h = 2 * f * f$
+     *
+     * @return The (reasonably reduced) square of this field element times 2.
+     */
+    public FieldElement squareAndDouble() {
+        long[] h = new long[5];
+        squareInto(t, h);
+        addInto(h, h, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = f^{(2^n)}$, by squaring $n$ times.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareNInto(long[] f, int n, long[] h) {
+        squareInto(f, h);
+        for (int i = 1; i < n; ++i) {
+            squareInto(h, h);
+        }
+    }
+
+    /**
+     * Invert this field element.
+     * <p>
+     * The inverse is found via Fermat's little theorem, with the same
+     * addition chain as {@link Ed25519FieldElement#invert()}.
+     *
+     * @return The inverse of this field element.
+     */
+    public FieldElement invert() {
+        long[] h = new long[5];
+        invertInto(t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = 1/z$, see {@link Ed25519FieldElement#invert()}.
+     * <p>
+     * Can overlap $h$ with $z$.
+     */
+    static void invertInto(long[] z, long[] h) {
+        long[] t0 = new long[5];
+        long[] t1 = new long[5];
+        long[] t2 = new long[5];
+        long[] t3 = new long[5];
+
+        // 2 == 2 * 1
+        squareInto(z, t0);
+
+        // 4 == 2 * 2
+        squareInto(t0, t1);
+
+        // 8 == 2 * 4
+        squareInto(t1, t1);
+
+        // 9 == 8 + 1
+        mulInto(z, t1, t1);
+
+        // 11 == 9 + 2
+        mulInto(t0, t1, t0);
+
+        // 22 == 2 * 11
+        squareInto(t0, t2);
+
+        // 31 == 22 + 9
+        mulInto(t1, t2, t1);
+
+        // 2^6 - 2^1
+        squareInto(t1, t2);
+
+        // 2^10 - 2^5
+        squareNInto(t2, 4, t2);
+
+        // 2^10 - 2^0
+        mulInto(t2, t1, t1);
+
+        // 2^11 - 2^1
+        squareInto(t1, t2);
+
+        // 2^20 - 2^10
+        squareNInto(t2, 9, t2);
+
+        // 2^20 - 2^0
+        mulInto(t2, t1, t2);
+
+        // 2^21 - 2^1
+        squareInto(t2, t3);
+
+        // 2^40 - 2^20
+        squareNInto(t3, 19, t3);
+
+        // 2^40 - 2^0
+        mulInto(t3, t2, t2);
+
+        // 2^41 - 2^1
+        squareInto(t2, t2);
+
+        // 2^50 - 2^10
+        squareNInto(t2, 9, t2);
+
+        // 2^50 - 2^0
+        mulInto(t2, t1, t1);
+
+        // 2^51 - 2^1
+        squareInto(t1, t2);
+
+        // 2^100 - 2^50
+        squareNInto(t2, 49, t2);
+
+        // 2^100 - 2^0
+        mulInto(t2, t1, t2);
+
+        // 2^101 - 2^1
+        squareInto(t2, t3);
+
+        // 2^200 - 2^100
+        squareNInto(t3, 99, t3);
+
+        // 2^200 - 2^0
+        mulInto(t3, t2, t2);
+
+        // 2^201 - 2^1
+        squareInto(t2, t2);
+
+        // 2^250 - 2^50
+        squareNInto(t2, 49, t2);
+
+        // 2^250 - 2^0
+        mulInto(t2, t1, t1);
+
+        // 2^251 - 2^1
+        squareInto(t1, t1);
+
+        // 2^255 - 2^5
+        squareNInto(t1, 4, t1);
+
+        // 2^255 - 21
+        mulInto(t1, t0, h);
+    }
+
+
+    /**
+     * Gets this field element to the power of $(2^{252} - 3)$.
+     * This is a helper function for calculating the square root.
+     *
+     * @return This field element to the power of $(2^{252} - 3)$.
+     */
+    public FieldElement pow22523() {
+        long[] h = new long[5];
+        pow22523Into(t, h);
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * $h = z^{(2^{252} - 3)}$, see {@link Ed25519FieldElement#pow22523()}.
+     * <p>
+     * Can overlap $h$ with $z$.
+     */
+    static void pow22523Into(long[] z, long[] h) {
+        long[] t0 = new long[5];
+        long[] t1 = new long[5];
+        long[] t2 = new long[5];
+
+        // 2 == 2 * 1
+        squareInto(z, t0);
+
+        // 4 == 2 * 2
+        squareInto(t0, t1);
+
+        // 8 == 2 * 4
+        squareInto(t1, t1);
+
+        // z9 = z1*z8
+        mulInto(z, t1, t1);
+
+        // 11 == 9 + 2
+        mulInto(t0, t1, t0);
+
+        // 22 == 2 * 11
+        squareInto(t0, t0);
+
+        // 31 == 22 + 9
+        mulInto(t1, t0, t0);
+
+        // 2^6 - 2^1
+        squareInto(t0, t1);
+
+        // 2^10 - 2^5
+        squareNInto(t1, 4, t1);
+
+        // 2^10 - 2^0
+        mulInto(t1, t0, t0);
+
+        // 2^11 - 2^1
+        squareInto(t0, t1);
+
+        // 2^20 - 2^10
+        squareNInto(t1, 9, t1);
+
+        // 2^20 - 2^0
+        mulInto(t1, t0, t1);
+
+        // 2^21 - 2^1
+        squareInto(t1, t2);
+
+        // 2^40 - 2^20
+        squareNInto(t2, 19, t2);
+
+        // 2^40 - 2^0
+        mulInto(t2, t1, t1);
+
+        // 2^41 - 2^1
+        squareInto(t1, t1);
+
+        // 2^50 - 2^10
+        squareNInto(t1, 9, t1);
+
+        // 2^50 - 2^0
+        mulInto(t1, t0, t0);
+
+        // 2^51 - 2^1
+        squareInto(t0, t1);
+
+        // 2^100 - 2^50
+        squareNInto(t1, 49, t1);
+
+        // 2^100 - 2^0
+        mulInto(t1, t0, t1);
+
+        // 2^101 - 2^1
+        squareInto(t1, t2);
+
+        // 2^200 - 2^100
+        squareNInto(t2, 99, t2);
+
+        // 2^200 - 2^0
+        mulInto(t2, t1, t1);
+
+        // 2^201 - 2^1
+        squareInto(t1, t1);
+
+        // 2^250 - 2^50
+        squareNInto(t1, 49, t1);
+
+        // 2^250 - 2^0
+        mulInto(t1, t0, t0);
+
+        // 2^251 - 2^1
+        squareInto(t0, t0);
+
+        // 2^252 - 2^2
+        squareInto(t0, t0);
+
+        // 2^252 - 3
+        mulInto(z, t0, h);
+    }
+
+
+    /**
+     * Constant-time conditional move.
+     *
+     * @param val the other field element.
+     * @param b must be 0 or 1, otherwise results are undefined.
+     * @return a copy of this if $b == 0$, or a copy of val if $b == 1$.
+     */
+    @Override
+    public FieldElement cmov(FieldElement val, int b) {
+        Ed25519LongFieldElement that = (Ed25519LongFieldElement) val;
+        final long mask = -(long) b;
+        long[] result = new long[5];
+        for (int i = 0; i < 5; i++) {
+            result[i] = this.t[i] ^ ((this.t[i] ^ that.t[i]) & mask);
+        }
+        return new Ed25519LongFieldElement(this.f, result);
+    }
+
+    @Override
+    public int hashCode() {
+        // The limbs are not unique, the encoding is
+        return Arrays.hashCode(toByteArray());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Ed25519LongFieldElement))
+            return false;
+        Ed25519LongFieldElement fe = (Ed25519LongFieldElement) obj;
+        return 1==Utils.equal(toByteArray(), fe.toByteArray());
+    }
+
+    @Override
+    public String toString() {
+        return "[Ed25519LongFieldElement val="+Utils.bytesToHex(toByteArray())+"]";
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.math.*;
+
+/**
+ * Helper class for encoding/decoding {@link Ed25519LongFieldElement}
+ * from/to the 32 byte representation.
+ */
+public class Ed25519LongLittleEndianEncoding extends Encoding {
+    private static final long MASK = Ed25519LongFieldElement.MASK;
+
+    /**
+     * Encodes a given field element in its 32 byte representation.
+     * <p>
+     * This follows {@link Ed25519LittleEndianEncoding#encode(FieldElement)}:
+     * once the limbs are carried, $h \lt 2p$, so
+     * $q = [2^{-255} * (h + 19)]$ is 0 or 1 and $r = h - q * p$.
+     */
+    public byte[] encode(FieldElement x) {
+        long[] h = ((Ed25519LongFieldElement)x).t;
+        long h0 = h[0];
+        long h1 = h[1];
+        long h2 = h[2];
+        long h3 = h[3];
+        long h4 = h[4];
+        long q;
+
+        h1 += h0 >>> 51; h0 &= MASK;
+        h2 += h1 >>> 51; h1 &= MASK;
+        h3 += h2 >>> 51; h2 &= MASK;
+        h4 += h3 >>> 51; h3 &= MASK;
+        h0 += 19 * (h4 >>> 51); h4 &= MASK;
+
+        // Step 1:
+        // Calculate q
+        q = (h0 + 19) >>> 51;
+        q = (h1 + q) >>> 51;
+        q = (h2 + q) >>> 51;
+        q = (h3 + q) >>> 51;
+        q = (h4 + q) >>> 51;
+
+        // r = h - q * p = h - 2^255 * q + 19 * q
+        // First add 19 * q then discard the bit 255
+        h0 += 19 * q;
+
+        h1 += h0 >>> 51; h0 &= MASK;
+        h2 += h1 >>> 51; h1 &= MASK;
+        h3 += h2 >>> 51; h2 &= MASK;
+        h4 += h3 >>> 51; h3 &= MASK;
+                         h4 &= MASK;
+
+        // Step 2 (straight forward conversion):
+        byte[] s = new byte[32];
+        store_8(s, 0, h0 | (h1 << 51));
+        store_8(s, 8, (h1 >>> 13) | (h2 << 38));
+        store_8(s, 16, (h2 >>> 26) | (h3 << 25));
+        store_8(s, 24, (h3 >>> 39) | (h4 << 12));
+        return s;
+    }
+
+    static void store_8(byte[] out, int offset, long v) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (v >> (8 * i));
+        }
+    }
+
+    static long load_8(byte[] in, int offset) {
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = (result << 8) | (in[offset + i] & 0xff);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a given field element in its 32 byte representation.
+     * The highest bit is ignored.
+     *
+     * @param in The 32 byte representation.
+     * @return The field represented by this value.
+     */
+    public FieldElement decode(byte[] in) {
+        long[] h = new long[5];
+        h[0] = load_8(in, 0) & MASK;
+        h[1] = (load_8(in, 6) >>> 3) & MASK;
+        h[2] = (load_8(in, 12) >>> 6) & MASK;
+        h[3] = (load_8(in, 19) >>> 1) & MASK;
+        h[4] = (load_8(in, 24) >>> 12) & MASK;
+        return new Ed25519LongFieldElement(f, h);
+    }
+
+    /**
+     * Is the FieldElement negative in this encoding?
+     * <p>
+     * Return true if $x$ is in $\{1,3,5,\dots,q-2\}$<br>
+     * Return false if $x$ is in $\{0,2,4,\dots,q-1\}$
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|x|$ bounded by $2^{51}$ per limb
+     * </ul>
+     *
+     * @return true if $x$ is in $\{1,3,5,\dots,q-2\}$, false otherwise.
+     */
+    public boolean isNegative(FieldElement x) {
+        byte[] s = encode(x);
+        return (s[0] & 1) != 0;
+    }
+}
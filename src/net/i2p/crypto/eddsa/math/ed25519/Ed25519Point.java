@@ -0,0 +1,293 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.Field;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+
+/**
+ * A mutable group element on the Ed25519 curve.
+ * <p>
+ * The formulas are the same as in {@link GroupElement}, but every
+ * intermediate value is written into a fixed set of limb arrays, so the
+ * scalar multiplications below allocate only those arrays and their result.
+ * <p>
+ * The point is held in $P^2$ or $P^3$ representation in $(X : Y : Z : T)$,
+ * and the result of an addition or doubling in $P \times P$ representation
+ * in $((X' : Z'), (Y' : T'))$.
+ */
+public final class Ed25519Point {
+    private final int[] X = new int[10];
+    private final int[] Y = new int[10];
+    private final int[] Z = new int[10];
+    private final int[] T = new int[10];
+
+    private final int[] Xp = new int[10];
+    private final int[] Yp = new int[10];
+    private final int[] Zp = new int[10];
+    private final int[] Tp = new int[10];
+
+    private final int[] a = new int[10];
+    private final int[] b = new int[10];
+    private final int[] c = new int[10];
+    private final int[] d = new int[10];
+
+    /**
+     * A point selected from a table, in PRECOMP representation.
+     */
+    private final int[] ypx = new int[10];
+    private final int[] ymx = new int[10];
+    private final int[] xy2d = new int[10];
+
+    /**
+     * Scratch for {@link #select(int[], int, int)}, one table entry.
+     */
+    private final int[] selected = new int[30];
+    private final int[] masks = new int[8];
+
+    private Ed25519Point() {
+        // The neutral element
+        Y[0] = 1;
+        Z[0] = 1;
+    }
+
+    /**
+     * @return the limbs of a field element.
+     */
+    private static int[] limbs(final FieldElement fe) {
+        return ((Ed25519FieldElement) fe).t;
+    }
+
+    /**
+     * $P \times P = 2 * P^2$, see {@link GroupElement#dbl()}.
+     */
+    private void dbl() {
+        Ed25519FieldElement.squareInto(X, a);
+        Ed25519FieldElement.squareInto(Y, b);
+        Ed25519FieldElement.squareAndDoubleInto(Z, Tp);
+        Ed25519FieldElement.addInto(X, Y, c);
+        Ed25519FieldElement.squareInto(c, Xp);
+        Ed25519FieldElement.addInto(b, a, Yp);
+        Ed25519FieldElement.subtractInto(b, a, Zp);
+        Ed25519FieldElement.subtractInto(Xp, Yp, Xp);
+        Ed25519FieldElement.subtractInto(Tp, Zp, Tp);
+    }
+
+    /**
+     * $P \times P = P^3 \pm q$ where $q$ is in PRECOMP representation.
+     *
+     * @param qypx $y + x$ of $q$
+     * @param qymx $y - x$ of $q$
+     * @param qxy2d $2 * d * x * y$ of $q$
+     * @param subtract true to compute $P^3 - q$
+     */
+    private void madd(final int[] qypx, final int[] qymx, final int[] qxy2d, final boolean subtract) {
+        Ed25519FieldElement.addInto(Y, X, a);
+        Ed25519FieldElement.subtractInto(Y, X, b);
+        if (subtract) {
+            Ed25519FieldElement.mulInto(a, qymx, c);
+            Ed25519FieldElement.mulInto(b, qypx, d);
+        } else {
+            Ed25519FieldElement.mulInto(a, qypx, c);
+            Ed25519FieldElement.mulInto(b, qymx, d);
+        }
+        Ed25519FieldElement.mulInto(qxy2d, T, a);
+        Ed25519FieldElement.addInto(Z, Z, b);
+        Ed25519FieldElement.subtractInto(c, d, Xp);
+        Ed25519FieldElement.addInto(c, d, Yp);
+        if (subtract) {
+            Ed25519FieldElement.subtractInto(b, a, Zp);
+            Ed25519FieldElement.addInto(b, a, Tp);
+        } else {
+            Ed25519FieldElement.addInto(b, a, Zp);
+            Ed25519FieldElement.subtractInto(b, a, Tp);
+        }
+    }
+
+    /**
+     * $P^2 = P \times P$
+     */
+    private void toP2() {
+        Ed25519FieldElement.mulInto(Xp, Tp, X);
+        Ed25519FieldElement.mulInto(Yp, Zp, Y);
+        Ed25519FieldElement.mulInto(Zp, Tp, Z);
+    }
+
+    /**
+     * $P^3 = P \times P$
+     */
+    private void toP3() {
+        toP2();
+        Ed25519FieldElement.mulInto(Xp, Yp, T);
+    }
+
+    /**
+     * Number of ints per row of a flattened table: 8 points of 3 field
+     * elements of 10 limbs.
+     */
+    private static final int ROW_SIZE = 8 * 3 * 10;
+
+    /**
+     * Copies the limbs of a table for {@link GroupElement#scalarMultiply(byte[])}
+     * into one array, so that {@link #select(int[], int, int)} reads them
+     * sequentially.
+     * <p>
+     * Entry $j$ of row $i$ starts at $(8 * i + j) * 30$, with the limbs of
+     * $y + x$, $y - x$ and $2 * d * x * y$ in that order.
+     *
+     * @param precmp the table, in PRECOMP representation
+     * @return the flat table
+     */
+    public static int[] flatten(final GroupElement[][] precmp) {
+        final int[] table = new int[precmp.length * ROW_SIZE];
+        int off = 0;
+        for (GroupElement[] row : precmp) {
+            for (GroupElement q : row) {
+                System.arraycopy(limbs(q.getX()), 0, table, off, 10);
+                System.arraycopy(limbs(q.getY()), 0, table, off + 10, 10);
+                System.arraycopy(limbs(q.getZ()), 0, table, off + 20, 10);
+                off += 30;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Loads $16^i r_i B$ from a row of the precomputed table into the
+     * selected point, see {@link GroupElement#scalarMultiply(byte[])}.
+     * <p>
+     * No secret array indices, no secret branching.
+     * Constant time.
+     *
+     * @param table the table from {@link #flatten(GroupElement[][])}.
+     * @param row $i$
+     * @param r $= r_i$
+     */
+    private void select(final int[] table, final int row, final int r) {
+        // Is r_i negative?
+        final int rnegative = Utils.negative(r);
+        // |r_i|
+        final int rabs = r - (((-rnegative) & r) << 1);
+
+        final int[] masks = this.masks;
+        for (int j = 0; j < 8; j++) {
+            masks[j] = -Utils.equal(rabs, j + 1);
+        }
+
+        final int[] t = selected;
+        final int base = row * ROW_SIZE;
+        for (int k = 0; k < 30; k++) {
+            // The neutral element, (1, 1, 0)
+            int v = (k == 0 || k == 10) ? 1 : 0;
+            for (int j = 0, off = base + k; j < 8; j++, off += 30) {
+                v ^= (v ^ table[off]) & masks[j];
+            }
+            t[k] = v;
+        }
+
+        // -16^i |r_i| B = (y - x, y + x, -2dxy)
+        final int mask = -rnegative;
+        for (int i = 0; i < 10; i++) {
+            final int swap = (t[i] ^ t[10 + i]) & mask;
+            ypx[i] = t[i] ^ swap;
+            ymx[i] = t[10 + i] ^ swap;
+            xy2d[i] = t[20 + i] ^ ((t[20 + i] ^ -t[20 + i]) & mask);
+        }
+    }
+
+    private GroupElement toGroupElement(final Curve curve, final boolean p3) {
+        final Field f = curve.getField();
+        if (p3)
+            return GroupElement.p3(curve, new Ed25519FieldElement(f, X.clone()), new Ed25519FieldElement(f, Y.clone()),
+                    new Ed25519FieldElement(f, Z.clone()), new Ed25519FieldElement(f, T.clone()));
+        return GroupElement.p2(curve, new Ed25519FieldElement(f, X.clone()), new Ed25519FieldElement(f, Y.clone()),
+                new Ed25519FieldElement(f, Z.clone()));
+    }
+
+    /**
+     * $h = a * B$, see {@link GroupElement#scalarMultiply(byte[])}.
+     * Constant time.
+     *
+     * @param curve the curve of $B$
+     * @param table the precomputed table of $B$, from {@link #flatten(GroupElement[][])}
+     * @param e $a$ in the signed radix 16 representation of {@link GroupElement#toRadix16(byte[])}
+     * @return $h$ in P3 representation
+     */
+    public static GroupElement scalarMultiply(final Curve curve, final int[] table, final byte[] e) {
+        final Ed25519Point h = new Ed25519Point();
+        int i;
+
+        for (i = 1; i < 64; i += 2) {
+            h.select(table, i/2, e[i]);
+            h.madd(h.ypx, h.ymx, h.xy2d, false);
+            h.toP3();
+        }
+
+        h.dbl(); h.toP2();
+        h.dbl(); h.toP2();
+        h.dbl(); h.toP2();
+        h.dbl(); h.toP3();
+
+        for (i = 0; i < 64; i += 2) {
+            h.select(table, i/2, e[i]);
+            h.madd(h.ypx, h.ymx, h.xy2d, false);
+            h.toP3();
+        }
+
+        return h.toGroupElement(curve, true);
+    }
+
+    /**
+     * $r = a * A + b * B$, see
+     * {@link GroupElement#doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}.
+     *
+     * @param curve the curve of $A$ and $B$
+     * @param aslide $a$ in sliding window representation
+     * @param aTable the odd multiples of $A$, in PRECOMP representation
+     * @param bslide $b$ in sliding window representation
+     * @param bTable the odd multiples of $B$, in PRECOMP representation
+     * @return $r$ in P2 representation
+     */
+    public static GroupElement doubleScalarMultiplyVariableTime(final Curve curve,
+            final byte[] aslide, final GroupElement[] aTable,
+            final byte[] bslide, final GroupElement[] bTable) {
+        final Ed25519Point r = new Ed25519Point();
+
+        int i;
+        for (i = 255; i >= 0; --i) {
+            if (aslide[i] != 0 || bslide[i] != 0) break;
+        }
+
+        for (; i >= 0; --i) {
+            r.dbl();
+
+            if (aslide[i] != 0) {
+                final GroupElement q = aTable[Math.abs(aslide[i])/2];
+                r.toP3();
+                r.madd(limbs(q.getX()), limbs(q.getY()), limbs(q.getZ()), aslide[i] < 0);
+            }
+
+            if (bslide[i] != 0) {
+                final GroupElement q = bTable[Math.abs(bslide[i])/2];
+                r.toP3();
+                r.madd(limbs(q.getX()), limbs(q.getY()), limbs(q.getZ()), bslide[i] < 0);
+            }
+
+            r.toP2();
+        }
+
+        return r.toGroupElement(curve, false);
+    }
+}
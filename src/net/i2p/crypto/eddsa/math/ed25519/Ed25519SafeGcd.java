@@ -0,0 +1,247 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+/**
+ * Constant-time inversion modulo $p = 2^{255} - 19$ with the safegcd
+ * algorithm of Bernstein and Yang, "Fast constant-time gcd computation and
+ * modular inversion" (2019).
+ * <p>
+ * The layout follows the 32-bit variant in libsecp256k1: numbers are held
+ * in nine signed limbs of 30 bits, and 20 rounds of 30 divsteps each are
+ * applied through $2 \times 2$ transition matrices. 590 divsteps suffice
+ * for 256-bit inputs. Every limb product fits in a long.
+ * <p>
+ * Each divstep uses masks instead of branches, and the number of rounds
+ * is fixed, so the running time does not depend on the input.
+ */
+final class Ed25519SafeGcd {
+    private static final int M30 = (1 << 30) - 1;
+
+    /**
+     * $p$ in signed 30-bit limbs.
+     */
+    private static final int[] P = {
+        0x3FFFFFED, 0x3FFFFFFF, 0x3FFFFFFF, 0x3FFFFFFF, 0x3FFFFFFF,
+        0x3FFFFFFF, 0x3FFFFFFF, 0x3FFFFFFF, 0x7FFF
+    };
+
+    /**
+     * $p^{-1} \bmod 2^{30}$
+     */
+    private static final int P_INV30 = 0x179435E5;
+
+    private Ed25519SafeGcd() {}
+
+    /**
+     * $h = 1/z$, with $h = 0$ if $z = 0$, as for
+     * {@link Ed25519FieldElement#invertInto(int[], int[])}.
+     * <p>
+     * Can overlap $h$ with $z$.
+     *
+     * @param z the element to invert, in the representation of {@link Ed25519FieldElement}
+     * @param h the result, in the same representation
+     */
+    static void invertInto(final int[] z, final int[] h) {
+        final int[] d = new int[9];
+        final int[] e = new int[9];
+        final int[] f = P.clone();
+        final int[] g = new int[9];
+        final int[] t = new int[4];
+        toSigned30(z, g);
+        e[0] = 1;
+
+        // zeta = -(delta + 1/2), with delta = 1/2 initially
+        int zeta = -1;
+        for (int i = 0; i < 20; i++) {
+            zeta = divsteps30(zeta, f[0], g[0], t);
+            updateDE(d, e, t);
+            updateFG(f, g, t);
+        }
+
+        // g is now 0 and f is +-1, so d is +-1/z
+        normalize(d, f[8]);
+        fromSigned30(d, h);
+    }
+
+    /**
+     * Applies 30 divsteps to the low bits of $f$ and $g$.
+     *
+     * @param t set to the transition matrix $(u, v, q, r)$, scaled by $2^{30}$
+     * @return the new zeta
+     */
+    private static int divsteps30(int zeta, final int f0, final int g0, final int[] t) {
+        int u = 1, v = 0, q = 0, r = 1;
+        int f = f0, g = g0;
+        for (int i = 0; i < 30; i++) {
+            // Masks for (zeta < 0) and for (g odd)
+            int mask1 = zeta >> 31;
+            final int mask2 = -(g & 1);
+            // Conditionally negated f, u, v
+            final int x = (f ^ mask1) - mask1;
+            final int y = (u ^ mask1) - mask1;
+            final int z = (v ^ mask1) - mask1;
+            // If g is odd, add them to g, q, r
+            g += x & mask2;
+            q += y & mask2;
+            r += z & mask2;
+            // If both, zeta becomes -zeta - 2 and f, u, v get g, q, r added; else zeta - 1
+            mask1 &= mask2;
+            zeta = (zeta ^ mask1) - 1;
+            f += g & mask1;
+            u += q & mask1;
+            v += r & mask1;
+            g >>= 1;
+            u <<= 1;
+            v <<= 1;
+        }
+        t[0] = u;
+        t[1] = v;
+        t[2] = q;
+        t[3] = r;
+        return zeta;
+    }
+
+    /**
+     * $(d, e) = t (d, e) / 2^{30} \bmod p$, keeping both in $(-2p, p)$.
+     */
+    private static void updateDE(final int[] d, final int[] e, final int[] t) {
+        final int u = t[0], v = t[1], q = t[2], r = t[3];
+        // Start with [u, q] if d is negative, plus [v, r] if e is negative
+        final int sd = d[8] >> 31;
+        final int se = e[8] >> 31;
+        int md = (u & sd) + (v & se);
+        int me = (q & sd) + (r & se);
+
+        int di = d[0];
+        int ei = e[0];
+        long cd = (long) u * di + (long) v * ei;
+        long ce = (long) q * di + (long) r * ei;
+        // Choose md, me so that the low 30 bits of t (d, e) + p (md, me) are zero
+        md -= (P_INV30 * (int) cd + md) & M30;
+        me -= (P_INV30 * (int) ce + me) & M30;
+        cd += (long) P[0] * md;
+        ce += (long) P[0] * me;
+        cd >>= 30;
+        ce >>= 30;
+
+        for (int i = 1; i < 9; i++) {
+            di = d[i];
+            ei = e[i];
+            cd += (long) u * di + (long) v * ei + (long) P[i] * md;
+            ce += (long) q * di + (long) r * ei + (long) P[i] * me;
+            d[i - 1] = (int) cd & M30;
+            e[i - 1] = (int) ce & M30;
+            cd >>= 30;
+            ce >>= 30;
+        }
+        d[8] = (int) cd;
+        e[8] = (int) ce;
+    }
+
+    /**
+     * $(f, g) = t (f, g) / 2^{30}$, which is exact.
+     */
+    private static void updateFG(final int[] f, final int[] g, final int[] t) {
+        final int u = t[0], v = t[1], q = t[2], r = t[3];
+        int fi = f[0];
+        int gi = g[0];
+        long cf = (long) u * fi + (long) v * gi;
+        long cg = (long) q * fi + (long) r * gi;
+        cf >>= 30;
+        cg >>= 30;
+
+        for (int i = 1; i < 9; i++) {
+            fi = f[i];
+            gi = g[i];
+            cf += (long) u * fi + (long) v * gi;
+            cg += (long) q * fi + (long) r * gi;
+            f[i - 1] = (int) cf & M30;
+            g[i - 1] = (int) cg & M30;
+            cf >>= 30;
+            cg >>= 30;
+        }
+        f[8] = (int) cf;
+        g[8] = (int) cg;
+    }
+
+    /**
+     * Brings $r$ from $(-2p, p)$ to $[0, p)$, negating it first if sign is negative.
+     */
+    private static void normalize(final int[] r, final int sign) {
+        // Add p if negative, then negate if requested: now in (-p, p)
+        int condAdd = r[8] >> 31;
+        final int condNegate = sign >> 31;
+        for (int i = 0; i < 9; i++) {
+            r[i] = ((r[i] + (P[i] & condAdd)) ^ condNegate) - condNegate;
+        }
+        carry(r);
+
+        // Add p again if still negative: now in [0, p)
+        condAdd = r[8] >> 31;
+        for (int i = 0; i < 9; i++) {
+            r[i] += P[i] & condAdd;
+        }
+        carry(r);
+    }
+
+    private static void carry(final int[] r) {
+        for (int i = 0; i < 8; i++) {
+            r[i + 1] += r[i] >> 30;
+            r[i] &= M30;
+        }
+    }
+
+    /**
+     * Converts an element of {@link Ed25519FieldElement} to its value in
+     * $[0, p)$ in 30-bit limbs.
+     */
+    private static void toSigned30(final int[] z, final int[] g) {
+        final int[] h = new int[10];
+        Ed25519FieldElement.reduceInto(z, h);
+
+        // Repack 26/25-bit limbs into 30-bit limbs
+        long acc = 0;
+        int bits = 0;
+        int j = 0;
+        for (int i = 0; i < 10; i++) {
+            acc |= (long) h[i] << bits;
+            bits += (i & 1) == 0 ? 26 : 25;
+            if (bits >= 30) {
+                g[j++] = (int) acc & M30;
+                acc >>>= 30;
+                bits -= 30;
+            }
+        }
+        g[j] = (int) acc;
+    }
+
+    /**
+     * Converts a value in $[0, p)$ in 30-bit limbs to the representation of
+     * {@link Ed25519FieldElement}.
+     */
+    private static void fromSigned30(final int[] d, final int[] h) {
+        long acc = 0;
+        int bits = 0;
+        int j = 0;
+        for (int i = 0; i < 10; i++) {
+            final int width = (i & 1) == 0 ? 26 : 25;
+            if (bits < width) {
+                acc |= (long) d[j++] << bits;
+                bits += 30;
+            }
+            h[i] = (int) acc & ((1 << width) - 1);
+            acc >>>= width;
+            bits -= width;
+        }
+    }
+}
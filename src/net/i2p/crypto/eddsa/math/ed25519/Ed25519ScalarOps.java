@@ -339,6 +339,75 @@ public class Ed25519ScalarOps implements ScalarOps {
      * See the comments in {@link #reduce(byte[])} for an explanation of the algorithm.
      */
     public byte[] multiplyAndAdd(byte[] a, byte[] b, byte[] c) {
+        // Split b into locals, toLimbs(b) would allocate on every signature
+        return multiplyAndAdd(a,
+                limb(b, 0), limb(b, 1), limb(b, 2), limb(b, 3), limb(b, 4), limb(b, 5),
+                limb(b, 6), limb(b, 7), limb(b, 8), limb(b, 9), limb(b, 10), limb(b, 11),
+                c);
+    }
+
+    /**
+     * Splits a scalar into the limbs used by
+     * {@link #multiplyAndAdd(byte[], long[], byte[])}, so that a scalar
+     * that is used many times only needs to be split once.
+     * <p>
+     * Input:
+     *   $s[0]+256*s[1]+\dots+256^{31}*s[31] = s$
+     * <p>
+     * Output:
+     *   $r[0]+2^{21}*r[1]+\dots+2^{231}*r[11] = s$, where $r[0],\dots,r[10]$
+     *   have 21 bits and $r[11]$ has the remaining 25 bits.
+     *
+     * @param s the scalar
+     * @return the limbs of $s$
+     */
+    public static long[] toLimbs(byte[] s) {
+        final long[] r = new long[12];
+        for (int i = 0; i < 12; i++) {
+            r[i] = limb(s, i);
+        }
+        return r;
+    }
+
+    /**
+     * @param s the scalar
+     * @param i the index of the limb, from 0 to 11
+     * @return limb i of $s$, as described in {@link #toLimbs(byte[])}
+     */
+    private static long limb(byte[] s, int i) {
+        switch (i) {
+            case 0: return 0x1FFFFF & load_3(s, 0);
+            case 1: return 0x1FFFFF & (load_4(s, 2) >> 5);
+            case 2: return 0x1FFFFF & (load_3(s, 5) >> 2);
+            case 3: return 0x1FFFFF & (load_4(s, 7) >> 7);
+            case 4: return 0x1FFFFF & (load_4(s, 10) >> 4);
+            case 5: return 0x1FFFFF & (load_3(s, 13) >> 1);
+            case 6: return 0x1FFFFF & (load_4(s, 15) >> 6);
+            case 7: return 0x1FFFFF & (load_3(s, 18) >> 3);
+            case 8: return 0x1FFFFF & load_3(s, 21);
+            case 9: return 0x1FFFFF & (load_4(s, 23) >> 5);
+            case 10: return 0x1FFFFF & (load_3(s, 26) >> 2);
+            default: return (load_4(s, 28) >> 7);
+        }
+    }
+
+    /**
+     * $(ab+c) \bmod q$, with $b$ already split by {@link #toLimbs(byte[])}.
+     *
+     * @param a a scalar
+     * @param b the limbs of a scalar
+     * @param c a scalar
+     * @return $(ab+c) \bmod q$
+     */
+    public byte[] multiplyAndAdd(byte[] a, long[] b, byte[] c) {
+        return multiplyAndAdd(a, b[0], b[1], b[2], b[3], b[4], b[5],
+                b[6], b[7], b[8], b[9], b[10], b[11], c);
+    }
+
+    private static byte[] multiplyAndAdd(byte[] a,
+            long b0, long b1, long b2, long b3, long b4, long b5,
+            long b6, long b7, long b8, long b9, long b10, long b11,
+            byte[] c) {
         long a0 = 0x1FFFFF & load_3(a, 0);
         long a1 = 0x1FFFFF & (load_4(a, 2) >> 5);
         long a2 = 0x1FFFFF & (load_3(a, 5) >> 2);
@@ -351,18 +420,6 @@ public class Ed25519ScalarOps implements ScalarOps {
         long a9 = 0x1FFFFF & (load_4(a, 23) >> 5);
         long a10 = 0x1FFFFF & (load_3(a, 26) >> 2);
         long a11 = (load_4(a, 28) >> 7);
-        long b0 = 0x1FFFFF & load_3(b, 0);
-        long b1 = 0x1FFFFF & (load_4(b, 2) >> 5);
-        long b2 = 0x1FFFFF & (load_3(b, 5) >> 2);
-        long b3 = 0x1FFFFF & (load_4(b, 7) >> 7);
-        long b4 = 0x1FFFFF & (load_4(b, 10) >> 4);
-        long b5 = 0x1FFFFF & (load_3(b, 13) >> 1);
-        long b6 = 0x1FFFFF & (load_4(b, 15) >> 6);
-        long b7 = 0x1FFFFF & (load_3(b, 18) >> 3);
-        long b8 = 0x1FFFFF & load_3(b, 21);
-        long b9 = 0x1FFFFF & (load_4(b, 23) >> 5);
-        long b10 = 0x1FFFFF & (load_3(b, 26) >> 2);
-        long b11 = (load_4(b, 28) >> 7);
         long c0 = 0x1FFFFF & load_3(c, 0);
         long c1 = 0x1FFFFF & (load_4(c, 2) >> 5);
         long c2 = 0x1FFFFF & (load_3(c, 5) >> 2);
@@ -0,0 +1,42 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+/**
+ * The high half of a 64 x 64 bit multiplication, for
+ * {@link Ed25519LongFieldElement}.
+ * <p>
+ * This is the portable version. The multi-release jar replaces it on
+ * Java 9 and later with one that calls Math.multiplyHigh, see src9.
+ */
+final class MultiplyHigh {
+    private MultiplyHigh() {}
+
+    /**
+     * @param x the first value
+     * @param y the second value
+     * @return the most significant 64 bits of the 128-bit product $x * y$
+     */
+    static long multiplyHigh(long x, long y) {
+        // Hacker's Delight, 8-2
+        final long x1 = x >> 32;
+        final long x2 = x & 0xFFFFFFFFL;
+        final long y1 = y >> 32;
+        final long y2 = y & 0xFFFFFFFFL;
+        final long z2 = x2 * y2;
+        final long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.spec;
+
+import java.io.File;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * Implementation of AlgorithmParameterSpec that configures how much of a
+ * message passed to update() is buffered in memory. Beyond the threshold,
+ * the message is moved to a temporary file.
+ *<p>
+ * Unlike EdDSAEngine.ONE_SHOT_MODE, this setting remains in effect for all
+ * later signs and verifies with the same engine.
+ *</p>
+ * @author str4d
+ *
+ */
+public class EdDSABufferSpec implements AlgorithmParameterSpec {
+    private final long memoryThreshold;
+    private final File directory;
+
+    /**
+     * @param memoryThreshold the maximum number of bytes to buffer in memory.
+     */
+    public EdDSABufferSpec(long memoryThreshold) {
+        this(memoryThreshold, null);
+    }
+
+    /**
+     * @param memoryThreshold the maximum number of bytes to buffer in memory.
+     *                        EdDSAEngine never buffers more than fits in an
+     *                        array, about 2 GiB, whatever this is set to.
+     * @param directory the directory for temporary files, or null for the
+     *                  system default.
+     */
+    public EdDSABufferSpec(long memoryThreshold, File directory) {
+        if (memoryThreshold < 0)
+            throw new IllegalArgumentException("memory threshold must not be negative");
+        this.memoryThreshold = memoryThreshold;
+        this.directory = directory;
+    }
+
+    public long getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+}
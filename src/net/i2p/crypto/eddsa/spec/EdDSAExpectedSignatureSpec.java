@@ -0,0 +1,33 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.spec;
+
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * Implementation of AlgorithmParameterSpec that holds the signature that
+ * will be passed to verify(), so that the message can be hashed as it is
+ * passed to update() instead of being buffered.
+ * @author str4d
+ *
+ */
+public class EdDSAExpectedSignatureSpec implements AlgorithmParameterSpec {
+    private final byte[] signature;
+
+    public EdDSAExpectedSignatureSpec(byte[] signature) {
+        this.signature = signature.clone();
+    }
+
+    public byte[] getSignature() {
+        return signature.clone();
+    }
+}
@@ -0,0 +1,557 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.Field;
+import net.i2p.crypto.eddsa.math.GroupElement;
+
+/**
+ * An {@link Ed25519LaneEngine} on the Vector API, which runs one point per
+ * vector lane.
+ * <p>
+ * A field element of every lane is held limb by limb: limb $i$ of lane $l$
+ * is at index $i * L + l$ of a long array, where $L$ is the number of
+ * lanes. The formulas and limb bounds are those of
+ * {@link Ed25519FieldElement} and {@link Ed25519Point}; the 64-bit lanes
+ * hold the same values as the long temporaries there.
+ * <p>
+ * This class is only in the Java 17 part of the multi-release jar, and
+ * needs the jdk.incubator.vector module at runtime. It is loaded by
+ * {@link Ed25519LaneEngine#getInstance()}.
+ */
+final class Ed25519VectorLaneEngine extends Ed25519LaneEngine {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+    private static final int L = SPECIES.length();
+    private static final int SIZE = 10 * L;
+
+    Ed25519VectorLaneEngine() {
+        // Fail here, rather than on first use, if the lanes are not there
+        if (L < 2)
+            throw new UnsupportedOperationException("no vector lanes");
+    }
+
+    @Override
+    public int getLanes() {
+        return L;
+    }
+
+    private static LongVector load(final long[] f, final int i) {
+        return LongVector.fromArray(SPECIES, f, i * L);
+    }
+
+    private static void carry(LongVector h0, LongVector h1, LongVector h2, LongVector h3, LongVector h4,
+                              LongVector h5, LongVector h6, LongVector h7, LongVector h8, LongVector h9,
+                              final long[] h) {
+        LongVector carry;
+        carry = h0.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h1 = h1.add(carry); h0 = h0.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h4.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h5 = h5.add(carry); h4 = h4.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h1.add(1L << 24).lanewise(VectorOperators.ASHR, 25); h2 = h2.add(carry); h1 = h1.sub(carry.lanewise(VectorOperators.LSHL, 25));
+        carry = h5.add(1L << 24).lanewise(VectorOperators.ASHR, 25); h6 = h6.add(carry); h5 = h5.sub(carry.lanewise(VectorOperators.LSHL, 25));
+        carry = h2.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h3 = h3.add(carry); h2 = h2.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h6.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h7 = h7.add(carry); h6 = h6.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h3.add(1L << 24).lanewise(VectorOperators.ASHR, 25); h4 = h4.add(carry); h3 = h3.sub(carry.lanewise(VectorOperators.LSHL, 25));
+        carry = h7.add(1L << 24).lanewise(VectorOperators.ASHR, 25); h8 = h8.add(carry); h7 = h7.sub(carry.lanewise(VectorOperators.LSHL, 25));
+        carry = h4.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h5 = h5.add(carry); h4 = h4.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h8.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h9 = h9.add(carry); h8 = h8.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        carry = h9.add(1L << 24).lanewise(VectorOperators.ASHR, 25); h0 = h0.add(carry.mul(19)); h9 = h9.sub(carry.lanewise(VectorOperators.LSHL, 25));
+        carry = h0.add(1L << 25).lanewise(VectorOperators.ASHR, 26); h1 = h1.add(carry); h0 = h0.sub(carry.lanewise(VectorOperators.LSHL, 26));
+        h0.intoArray(h, 0);
+        h1.intoArray(h, L);
+        h2.intoArray(h, 2 * L);
+        h3.intoArray(h, 3 * L);
+        h4.intoArray(h, 4 * L);
+        h5.intoArray(h, 5 * L);
+        h6.intoArray(h, 6 * L);
+        h7.intoArray(h, 7 * L);
+        h8.intoArray(h, 8 * L);
+        h9.intoArray(h, 9 * L);
+    }
+
+    /**
+     * $h = f * g$ in every lane, see {@link Ed25519FieldElement#multiply(net.i2p.crypto.eddsa.math.FieldElement)}.
+     * <p>
+     * Can overlap $h$ with $f$ or $g$.
+     */
+    static void mul(final long[] f, final long[] g, final long[] h) {
+        final LongVector f0 = load(f, 0), f1 = load(f, 1), f2 = load(f, 2), f3 = load(f, 3), f4 = load(f, 4);
+        final LongVector f5 = load(f, 5), f6 = load(f, 6), f7 = load(f, 7), f8 = load(f, 8), f9 = load(f, 9);
+        final LongVector g0 = load(g, 0), g1 = load(g, 1), g2 = load(g, 2), g3 = load(g, 3), g4 = load(g, 4);
+        final LongVector g5 = load(g, 5), g6 = load(g, 6), g7 = load(g, 7), g8 = load(g, 8), g9 = load(g, 9);
+        final LongVector f1_2 = f1.add(f1), f3_2 = f3.add(f3), f5_2 = f5.add(f5), f7_2 = f7.add(f7), f9_2 = f9.add(f9);
+        final LongVector g1_19 = g1.mul(19), g2_19 = g2.mul(19), g3_19 = g3.mul(19), g4_19 = g4.mul(19);
+        final LongVector g5_19 = g5.mul(19), g6_19 = g6.mul(19), g7_19 = g7.mul(19), g8_19 = g8.mul(19), g9_19 = g9.mul(19);
+        LongVector h0 = f0.mul(g0)
+                .add(f1_2.mul(g9_19))
+                .add(f2.mul(g8_19))
+                .add(f3_2.mul(g7_19))
+                .add(f4.mul(g6_19))
+                .add(f5_2.mul(g5_19))
+                .add(f6.mul(g4_19))
+                .add(f7_2.mul(g3_19))
+                .add(f8.mul(g2_19))
+                .add(f9_2.mul(g1_19));
+        LongVector h1 = f0.mul(g1)
+                .add(f1.mul(g0))
+                .add(f2.mul(g9_19))
+                .add(f3.mul(g8_19))
+                .add(f4.mul(g7_19))
+                .add(f5.mul(g6_19))
+                .add(f6.mul(g5_19))
+                .add(f7.mul(g4_19))
+                .add(f8.mul(g3_19))
+                .add(f9.mul(g2_19));
+        LongVector h2 = f0.mul(g2)
+                .add(f1_2.mul(g1))
+                .add(f2.mul(g0))
+                .add(f3_2.mul(g9_19))
+                .add(f4.mul(g8_19))
+                .add(f5_2.mul(g7_19))
+                .add(f6.mul(g6_19))
+                .add(f7_2.mul(g5_19))
+                .add(f8.mul(g4_19))
+                .add(f9_2.mul(g3_19));
+        LongVector h3 = f0.mul(g3)
+                .add(f1.mul(g2))
+                .add(f2.mul(g1))
+                .add(f3.mul(g0))
+                .add(f4.mul(g9_19))
+                .add(f5.mul(g8_19))
+                .add(f6.mul(g7_19))
+                .add(f7.mul(g6_19))
+                .add(f8.mul(g5_19))
+                .add(f9.mul(g4_19));
+        LongVector h4 = f0.mul(g4)
+                .add(f1_2.mul(g3))
+                .add(f2.mul(g2))
+                .add(f3_2.mul(g1))
+                .add(f4.mul(g0))
+                .add(f5_2.mul(g9_19))
+                .add(f6.mul(g8_19))
+                .add(f7_2.mul(g7_19))
+                .add(f8.mul(g6_19))
+                .add(f9_2.mul(g5_19));
+        LongVector h5 = f0.mul(g5)
+                .add(f1.mul(g4))
+                .add(f2.mul(g3))
+                .add(f3.mul(g2))
+                .add(f4.mul(g1))
+                .add(f5.mul(g0))
+                .add(f6.mul(g9_19))
+                .add(f7.mul(g8_19))
+                .add(f8.mul(g7_19))
+                .add(f9.mul(g6_19));
+        LongVector h6 = f0.mul(g6)
+                .add(f1_2.mul(g5))
+                .add(f2.mul(g4))
+                .add(f3_2.mul(g3))
+                .add(f4.mul(g2))
+                .add(f5_2.mul(g1))
+                .add(f6.mul(g0))
+                .add(f7_2.mul(g9_19))
+                .add(f8.mul(g8_19))
+                .add(f9_2.mul(g7_19));
+        LongVector h7 = f0.mul(g7)
+                .add(f1.mul(g6))
+                .add(f2.mul(g5))
+                .add(f3.mul(g4))
+                .add(f4.mul(g3))
+                .add(f5.mul(g2))
+                .add(f6.mul(g1))
+                .add(f7.mul(g0))
+                .add(f8.mul(g9_19))
+                .add(f9.mul(g8_19));
+        LongVector h8 = f0.mul(g8)
+                .add(f1_2.mul(g7))
+                .add(f2.mul(g6))
+                .add(f3_2.mul(g5))
+                .add(f4.mul(g4))
+                .add(f5_2.mul(g3))
+                .add(f6.mul(g2))
+                .add(f7_2.mul(g1))
+                .add(f8.mul(g0))
+                .add(f9_2.mul(g9_19));
+        LongVector h9 = f0.mul(g9)
+                .add(f1.mul(g8))
+                .add(f2.mul(g7))
+                .add(f3.mul(g6))
+                .add(f4.mul(g5))
+                .add(f5.mul(g4))
+                .add(f6.mul(g3))
+                .add(f7.mul(g2))
+                .add(f8.mul(g1))
+                .add(f9.mul(g0));
+        carry(h0, h1, h2, h3, h4, h5, h6, h7, h8, h9, h);
+    }
+
+    /**
+     * $h = f * f$ in every lane, see {@link Ed25519FieldElement#square()}.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void square(final long[] f, final long[] h) {
+        final LongVector f0 = load(f, 0), f1 = load(f, 1), f2 = load(f, 2), f3 = load(f, 3), f4 = load(f, 4);
+        final LongVector f5 = load(f, 5), f6 = load(f, 6), f7 = load(f, 7), f8 = load(f, 8), f9 = load(f, 9);
+        final LongVector f0_2 = f0.add(f0), f1_2 = f1.add(f1), f2_2 = f2.add(f2), f3_2 = f3.add(f3), f4_2 = f4.add(f4);
+        final LongVector f5_2 = f5.add(f5), f6_2 = f6.add(f6), f7_2 = f7.add(f7), f8_2 = f8.add(f8), f9_2 = f9.add(f9);
+        final LongVector f5_19 = f5.mul(19), f6_19 = f6.mul(19), f7_19 = f7.mul(19), f8_19 = f8.mul(19), f9_19 = f9.mul(19);
+        final LongVector f5_38 = f5_19.add(f5_19), f6_38 = f6_19.add(f6_19), f7_38 = f7_19.add(f7_19), f8_38 = f8_19.add(f8_19), f9_38 = f9_19.add(f9_19);
+        LongVector h0 = f0.mul(f0)
+                .add(f1_2.mul(f9_38))
+                .add(f2_2.mul(f8_19))
+                .add(f3_2.mul(f7_38))
+                .add(f4_2.mul(f6_19))
+                .add(f5_2.mul(f5_19));
+        LongVector h1 = f0_2.mul(f1)
+                .add(f2_2.mul(f9_19))
+                .add(f3_2.mul(f8_19))
+                .add(f4_2.mul(f7_19))
+                .add(f5_2.mul(f6_19));
+        LongVector h2 = f0_2.mul(f2)
+                .add(f1_2.mul(f1))
+                .add(f3_2.mul(f9_38))
+                .add(f4_2.mul(f8_19))
+                .add(f5_2.mul(f7_38))
+                .add(f6.mul(f6_19));
+        LongVector h3 = f0_2.mul(f3)
+                .add(f1_2.mul(f2))
+                .add(f4_2.mul(f9_19))
+                .add(f5_2.mul(f8_19))
+                .add(f6_2.mul(f7_19));
+        LongVector h4 = f0_2.mul(f4)
+                .add(f1_2.mul(f3_2))
+                .add(f2.mul(f2))
+                .add(f5_2.mul(f9_38))
+                .add(f6_2.mul(f8_19))
+                .add(f7_2.mul(f7_19));
+        LongVector h5 = f0_2.mul(f5)
+                .add(f1_2.mul(f4))
+                .add(f2_2.mul(f3))
+                .add(f6_2.mul(f9_19))
+                .add(f7_2.mul(f8_19));
+        LongVector h6 = f0_2.mul(f6)
+                .add(f1_2.mul(f5_2))
+                .add(f2_2.mul(f4))
+                .add(f3_2.mul(f3))
+                .add(f7_2.mul(f9_38))
+                .add(f8.mul(f8_19));
+        LongVector h7 = f0_2.mul(f7)
+                .add(f1_2.mul(f6))
+                .add(f2_2.mul(f5))
+                .add(f3_2.mul(f4))
+                .add(f8_2.mul(f9_19));
+        LongVector h8 = f0_2.mul(f8)
+                .add(f1_2.mul(f7_2))
+                .add(f2_2.mul(f6))
+                .add(f3_2.mul(f5_2))
+                .add(f4.mul(f4))
+                .add(f9_2.mul(f9_19));
+        LongVector h9 = f0_2.mul(f9)
+                .add(f1_2.mul(f8))
+                .add(f2_2.mul(f7))
+                .add(f3_2.mul(f6))
+                .add(f4_2.mul(f5));
+        carry(h0, h1, h2, h3, h4, h5, h6, h7, h8, h9, h);
+    }
+
+    /**
+     * $h = 2 * f * f$ in every lane, see {@link Ed25519FieldElement#squareAndDouble()}.
+     * <p>
+     * Can overlap $h$ with $f$.
+     */
+    static void squareAndDouble(final long[] f, final long[] h) {
+        final LongVector f0 = load(f, 0), f1 = load(f, 1), f2 = load(f, 2), f3 = load(f, 3), f4 = load(f, 4);
+        final LongVector f5 = load(f, 5), f6 = load(f, 6), f7 = load(f, 7), f8 = load(f, 8), f9 = load(f, 9);
+        final LongVector f0_2 = f0.add(f0), f1_2 = f1.add(f1), f2_2 = f2.add(f2), f3_2 = f3.add(f3), f4_2 = f4.add(f4);
+        final LongVector f5_2 = f5.add(f5), f6_2 = f6.add(f6), f7_2 = f7.add(f7), f8_2 = f8.add(f8), f9_2 = f9.add(f9);
+        final LongVector f5_19 = f5.mul(19), f6_19 = f6.mul(19), f7_19 = f7.mul(19), f8_19 = f8.mul(19), f9_19 = f9.mul(19);
+        final LongVector f5_38 = f5_19.add(f5_19), f6_38 = f6_19.add(f6_19), f7_38 = f7_19.add(f7_19), f8_38 = f8_19.add(f8_19), f9_38 = f9_19.add(f9_19);
+        LongVector h0 = f0.mul(f0)
+                .add(f1_2.mul(f9_38))
+                .add(f2_2.mul(f8_19))
+                .add(f3_2.mul(f7_38))
+                .add(f4_2.mul(f6_19))
+                .add(f5_2.mul(f5_19));
+        LongVector h1 = f0_2.mul(f1)
+                .add(f2_2.mul(f9_19))
+                .add(f3_2.mul(f8_19))
+                .add(f4_2.mul(f7_19))
+                .add(f5_2.mul(f6_19));
+        LongVector h2 = f0_2.mul(f2)
+                .add(f1_2.mul(f1))
+                .add(f3_2.mul(f9_38))
+                .add(f4_2.mul(f8_19))
+                .add(f5_2.mul(f7_38))
+                .add(f6.mul(f6_19));
+        LongVector h3 = f0_2.mul(f3)
+                .add(f1_2.mul(f2))
+                .add(f4_2.mul(f9_19))
+                .add(f5_2.mul(f8_19))
+                .add(f6_2.mul(f7_19));
+        LongVector h4 = f0_2.mul(f4)
+                .add(f1_2.mul(f3_2))
+                .add(f2.mul(f2))
+                .add(f5_2.mul(f9_38))
+                .add(f6_2.mul(f8_19))
+                .add(f7_2.mul(f7_19));
+        LongVector h5 = f0_2.mul(f5)
+                .add(f1_2.mul(f4))
+                .add(f2_2.mul(f3))
+                .add(f6_2.mul(f9_19))
+                .add(f7_2.mul(f8_19));
+        LongVector h6 = f0_2.mul(f6)
+                .add(f1_2.mul(f5_2))
+                .add(f2_2.mul(f4))
+                .add(f3_2.mul(f3))
+                .add(f7_2.mul(f9_38))
+                .add(f8.mul(f8_19));
+        LongVector h7 = f0_2.mul(f7)
+                .add(f1_2.mul(f6))
+                .add(f2_2.mul(f5))
+                .add(f3_2.mul(f4))
+                .add(f8_2.mul(f9_19));
+        LongVector h8 = f0_2.mul(f8)
+                .add(f1_2.mul(f7_2))
+                .add(f2_2.mul(f6))
+                .add(f3_2.mul(f5_2))
+                .add(f4.mul(f4))
+                .add(f9_2.mul(f9_19));
+        LongVector h9 = f0_2.mul(f9)
+                .add(f1_2.mul(f8))
+                .add(f2_2.mul(f7))
+                .add(f3_2.mul(f6))
+                .add(f4_2.mul(f5));
+        h0 = h0.add(h0); h1 = h1.add(h1); h2 = h2.add(h2); h3 = h3.add(h3); h4 = h4.add(h4);
+        h5 = h5.add(h5); h6 = h6.add(h6); h7 = h7.add(h7); h8 = h8.add(h8); h9 = h9.add(h9);
+        carry(h0, h1, h2, h3, h4, h5, h6, h7, h8, h9, h);
+    }
+
+    /**
+     * $h = f + g$ in every lane. Can overlap $h$ with $f$ or $g$.
+     */
+    static void add(final long[] f, final long[] g, final long[] h) {
+        for (int i = 0; i < SIZE; i += L) {
+            LongVector.fromArray(SPECIES, f, i).add(LongVector.fromArray(SPECIES, g, i)).intoArray(h, i);
+        }
+    }
+
+    /**
+     * $h = f - g$ in every lane. Can overlap $h$ with $f$ or $g$.
+     */
+    static void sub(final long[] f, final long[] g, final long[] h) {
+        for (int i = 0; i < SIZE; i += L) {
+            LongVector.fromArray(SPECIES, f, i).sub(LongVector.fromArray(SPECIES, g, i)).intoArray(h, i);
+        }
+    }
+
+    /**
+     * One group element per lane, laid out like {@link Ed25519Point}.
+     */
+    private static final class Points {
+        final long[] X = new long[SIZE];
+        final long[] Y = new long[SIZE];
+        final long[] Z = new long[SIZE];
+        final long[] T = new long[SIZE];
+
+        final long[] Xp = new long[SIZE];
+        final long[] Yp = new long[SIZE];
+        final long[] Zp = new long[SIZE];
+        final long[] Tp = new long[SIZE];
+
+        final long[] a = new long[SIZE];
+        final long[] b = new long[SIZE];
+        final long[] c = new long[SIZE];
+        final long[] d = new long[SIZE];
+
+        /**
+         * The points selected from the tables, in PRECOMP representation.
+         */
+        final long[] ypx = new long[SIZE];
+        final long[] ymx = new long[SIZE];
+        final long[] xy2d = new long[SIZE];
+
+        Points() {
+            // The neutral element in every lane
+            for (int l = 0; l < L; l++) {
+                Y[l] = 1;
+                Z[l] = 1;
+            }
+        }
+
+        /**
+         * $P \times P = 2 * P^2$
+         */
+        void dbl() {
+            square(X, a);
+            square(Y, b);
+            squareAndDouble(Z, Tp);
+            add(X, Y, c);
+            square(c, Xp);
+            add(b, a, Yp);
+            sub(b, a, Zp);
+            sub(Xp, Yp, Xp);
+            sub(Tp, Zp, Tp);
+        }
+
+        /**
+         * $P \times P = P^3 + q$ where $q$ is the selected point.
+         */
+        void madd() {
+            add(Y, X, a);
+            sub(Y, X, b);
+            mul(a, ypx, c);
+            mul(b, ymx, d);
+            mul(xy2d, T, a);
+            add(Z, Z, b);
+            sub(c, d, Xp);
+            add(c, d, Yp);
+            add(b, a, Zp);
+            sub(b, a, Tp);
+        }
+
+        /**
+         * $P^2 = P \times P$
+         */
+        void toP2() {
+            mul(Xp, Tp, X);
+            mul(Yp, Zp, Y);
+            mul(Zp, Tp, Z);
+        }
+
+        /**
+         * $P^3 = P \times P$
+         */
+        void toP3() {
+            toP2();
+            mul(Xp, Yp, T);
+        }
+
+        /**
+         * Loads $d * Q$ into a lane of the selected points, from the odd
+         * multiples of $Q$.
+         */
+        void select(final int l, final GroupElement[] table, final int d) {
+            if (d == 0) {
+                // The neutral element, (1, 1, 0)
+                for (int i = 0; i < 10; i++) {
+                    ypx[i * L + l] = 0;
+                    ymx[i * L + l] = 0;
+                    xy2d[i * L + l] = 0;
+                }
+                ypx[l] = 1;
+                ymx[l] = 1;
+                return;
+            }
+            final GroupElement q = table[Math.abs(d) / 2];
+            final int[] qypx = ((Ed25519FieldElement) q.getX()).t;
+            final int[] qymx = ((Ed25519FieldElement) q.getY()).t;
+            final int[] qxy2d = ((Ed25519FieldElement) q.getZ()).t;
+            if (d > 0) {
+                for (int i = 0; i < 10; i++) {
+                    ypx[i * L + l] = qypx[i];
+                    ymx[i * L + l] = qymx[i];
+                    xy2d[i * L + l] = qxy2d[i];
+                }
+            } else {
+                // -Q = (y - x, y + x, -2dxy)
+                for (int i = 0; i < 10; i++) {
+                    ypx[i * L + l] = qymx[i];
+                    ymx[i * L + l] = qypx[i];
+                    xy2d[i * L + l] = -qxy2d[i];
+                }
+            }
+        }
+
+        GroupElement toP2(final Curve curve, final int l) {
+            final Field f = curve.getField();
+            return GroupElement.p2(curve, new Ed25519FieldElement(f, lane(X, l)),
+                    new Ed25519FieldElement(f, lane(Y, l)), new Ed25519FieldElement(f, lane(Z, l)));
+        }
+
+        private static int[] lane(final long[] f, final int l) {
+            final int[] t = new int[10];
+            for (int i = 0; i < 10; i++) {
+                t[i] = (int) f[i * L + l];
+            }
+            return t;
+        }
+    }
+
+    @Override
+    public void doubleScalarMultiplyVariableTime(final Curve curve,
+            final byte[][] aslides, final GroupElement[][] aTables,
+            final byte[][] bslides, final GroupElement[] bTable,
+            final GroupElement[] out) {
+        final int n = out.length;
+        for (int from = 0; from < n; from += L) {
+            final int lanes = Math.min(L, n - from);
+            if (lanes == 1) {
+                // Not worth the vectors
+                out[from] = Ed25519Point.doubleScalarMultiplyVariableTime(curve,
+                        aslides[from], aTables[from], bslides[from], bTable);
+                continue;
+            }
+
+            final Points r = new Points();
+            int top = -1;
+            for (int l = 0; l < lanes; l++) {
+                top = Math.max(top, topIndex(aslides[from + l], bslides[from + l]));
+            }
+
+            for (int i = top; i >= 0; --i) {
+                r.dbl();
+
+                if (anyNonZero(aslides, from, lanes, i)) {
+                    for (int l = 0; l < L; l++) {
+                        r.select(l, l < lanes ? aTables[from + l] : null, l < lanes ? aslides[from + l][i] : 0);
+                    }
+                    r.toP3();
+                    r.madd();
+                }
+
+                if (anyNonZero(bslides, from, lanes, i)) {
+                    for (int l = 0; l < L; l++) {
+                        r.select(l, bTable, l < lanes ? bslides[from + l][i] : 0);
+                    }
+                    r.toP3();
+                    r.madd();
+                }
+
+                r.toP2();
+            }
+
+            for (int l = 0; l < lanes; l++) {
+                out[from + l] = r.toP2(curve, l);
+            }
+        }
+    }
+
+    private static int topIndex(final byte[] aslide, final byte[] bslide) {
+        int i;
+        for (i = 255; i >= 0; --i) {
+            if (aslide[i] != 0 || bslide[i] != 0) break;
+        }
+        return i;
+    }
+
+    private static boolean anyNonZero(final byte[][] slides, final int from, final int lanes, final int i) {
+        for (int l = 0; l < lanes; l++) {
+            if (slides[from + l][i] != 0)
+                return true;
+        }
+        return false;
+    }
+}
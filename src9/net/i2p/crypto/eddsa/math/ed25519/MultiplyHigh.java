@@ -0,0 +1,32 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+/**
+ * The high half of a 64 x 64 bit multiplication, for
+ * {@link Ed25519LongFieldElement}.
+ * <p>
+ * This is the Java 9 version, packaged in META-INF/versions/9 of the jar.
+ * Math.multiplyHigh is an intrinsic on most 64-bit platforms.
+ */
+final class MultiplyHigh {
+    private MultiplyHigh() {}
+
+    /**
+     * @param x the first value
+     * @param y the second value
+     * @return the most significant 64 bits of the 128-bit product $x * y$
+     */
+    static long multiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.SignatureException;
+
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author str4d
+ *
+ */
+public class Ed25519phEngineTest {
+    // RFC 8032, section 7.3
+    static final byte[] TEST_SEED = Utils.hexToBytes("833fe62409237b9d62ec77587520911e9a759cec1d19755b7da901b96dca3d42");
+    static final byte[] TEST_PK = Utils.hexToBytes("ec172b93ad5e563bf4932c70e1245034c35467ef2efd4d64ebf819683467e2bf");
+    static final byte[] TEST_MSG = Utils.hexToBytes("616263");
+    static final byte[] TEST_MSG_SIG = Utils.hexToBytes("98a70222f0b8121aa9d30f813d683f809e462b469c7ff87639499bb94e6dae4131f85042463c2a355a2003d062adf5aaa10b8c61e636062aaad11c2a26083406");
+
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testSign() throws Exception {
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initSign(new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec)));
+
+        sgr.update(TEST_MSG, 0, 1);
+        sgr.update(ByteBuffer.wrap(TEST_MSG, 1, 2));
+
+        assertThat("Ed25519ph sign failed", sgr.sign(), is(equalTo(TEST_MSG_SIG)));
+        // Ready to sign again
+        sgr.update(TEST_MSG);
+        assertThat("Ed25519ph sign reuse failed", sgr.sign(), is(equalTo(TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testVerify() throws Exception {
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+
+        sgr.update(TEST_MSG);
+        assertThat("Ed25519ph verify failed", sgr.verify(TEST_MSG_SIG), is(true));
+
+        sgr.update(TEST_MSG, 0, 2);
+        assertThat(sgr.verify(TEST_MSG_SIG), is(false));
+    }
+
+    @Test
+    public void testSignPrehash() throws Exception {
+        byte[] ph = MessageDigest.getInstance("SHA-512").digest(TEST_MSG);
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initSign(new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec)));
+
+        assertThat("signPrehash() failed", sgr.signPrehash(ph), is(equalTo(TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testVerifyPrehash() throws Exception {
+        byte[] ph = MessageDigest.getInstance("SHA-512").digest(TEST_MSG);
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+
+        assertThat("verifyPrehash() failed", sgr.verifyPrehash(ph, TEST_MSG_SIG), is(true));
+    }
+
+    @Test
+    public void testPureSignatureDoesNotVerify() throws Exception {
+        EdDSAPrivateKey sKey = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec));
+        byte[] ph = MessageDigest.getInstance("SHA-512").digest(TEST_MSG);
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+
+        assertThat(sgr.verifyPrehash(ph, EdDSA.sign(sKey, ph)), is(false));
+    }
+
+    /**
+     * @return parameters that use SHA-512 but are not Ed25519.
+     */
+    private static EdDSAParameterSpec otherSpec() {
+        GroupElement B = spec.getCurve().createPoint(spec.getB().dbl().toP3().toByteArray(), true);
+        return new EdDSAParameterSpec(spec.getCurve(), spec.getHashAlgorithm(), spec.getScalarOps(), B);
+    }
+
+    @Test
+    public void testInitSignRejectsOtherParams() throws Exception {
+        Ed25519phEngine sgr = new Ed25519phEngine();
+
+        exception.expect(InvalidKeyException.class);
+        exception.expectMessage("Ed25519ph requires an Ed25519 key");
+        sgr.initSign(new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, otherSpec())));
+    }
+
+    @Test
+    public void testInitVerifyRejectsOtherParams() throws Exception {
+        Ed25519phEngine sgr = new Ed25519phEngine();
+
+        exception.expect(InvalidKeyException.class);
+        exception.expectMessage("Ed25519ph requires an Ed25519 key");
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, otherSpec())));
+    }
+
+    @Test
+    public void testSignPrehashWrongLength() throws Exception {
+        Ed25519phEngine sgr = new Ed25519phEngine();
+        sgr.initSign(new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec)));
+
+        exception.expect(SignatureException.class);
+        exception.expectMessage("prehash length is wrong");
+        sgr.signPrehash(new byte[32]);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSABatchVerifierTest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    private static EdDSABatchVerifier addTestCases(int num) {
+        EdDSABatchVerifier verifier = new EdDSABatchVerifier();
+        int i = 0;
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (i++ == num)
+                break;
+            EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+            verifier.add(key, testCase.message, testCase.sig);
+        }
+        return verifier;
+    }
+
+    @Test
+    public void testVerifyEmptyBatch() {
+        assertThat(new EdDSABatchVerifier().verify().length, is(equalTo(0)));
+    }
+
+    @Test
+    public void testVerifyValidBatch() {
+        EdDSABatchVerifier verifier = addTestCases(64);
+        assertThat(verifier.size(), is(equalTo(64)));
+
+        boolean[] expected = new boolean[64];
+        Arrays.fill(expected, true);
+        assertThat(verifier.verify(), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyBatchWithBadSignatures() {
+        EdDSABatchVerifier verifier = new EdDSABatchVerifier();
+        boolean[] expected = new boolean[32];
+        int i = 0;
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (i == expected.length)
+                break;
+            EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+            byte[] sig = testCase.sig.clone();
+            switch (i % 4) {
+            case 1:
+                // Corrupt S
+                sig[40] ^= 1;
+                break;
+            case 2:
+                // Truncate
+                sig = Arrays.copyOf(sig, 63);
+                break;
+            default:
+                expected[i] = true;
+            }
+            verifier.add(key, testCase.message, sig);
+            i++;
+        }
+
+        assertThat(verifier.verify(), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyBatchWithWrongMessage() {
+        EdDSABatchVerifier verifier = addTestCases(8);
+        Ed25519TestVectors.TestTuple testCase = Ed25519TestVectors.testCases.iterator().next();
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+        verifier.add(key, "wrong message".getBytes(), testCase.sig);
+
+        boolean[] expected = new boolean[9];
+        Arrays.fill(expected, 0, 8, true);
+        assertThat(verifier.verify(), is(equalTo(expected)));
+    }
+
+    /**
+     * $S + l$ must be rejected whether it is verified alone, in a batch that
+     * is otherwise valid, or in a batch that falls back to checking each
+     * entry.
+     */
+    @Test
+    public void testVerifyRejectsUnreducedS() {
+        Ed25519TestVectors.TestTuple testCase = Ed25519TestVectors.testCases.iterator().next();
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+        byte[] sig = EdDSAEngineTest.addLToS(testCase.sig);
+
+        EdDSABatchVerifier verifier = new EdDSABatchVerifier();
+        verifier.add(key, testCase.message, sig);
+        assertThat(verifier.verify(), is(equalTo(new boolean[] { false })));
+
+        verifier = addTestCases(8);
+        verifier.add(key, testCase.message, sig);
+        boolean[] expected = new boolean[9];
+        Arrays.fill(expected, 0, 8, true);
+        assertThat(verifier.verify(), is(equalTo(expected)));
+
+        verifier = addTestCases(8);
+        verifier.add(key, "wrong message".getBytes(), testCase.sig);
+        verifier.add(key, testCase.message, sig);
+        expected = new boolean[10];
+        Arrays.fill(expected, 0, 8, true);
+        assertThat(verifier.verify(), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyRejectsNonCanonicalR() {
+        Ed25519TestVectors.TestTuple testCase = Ed25519TestVectors.testCases.iterator().next();
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+        // y = p, which decodes to the same point as y = 0
+        byte[] sig = testCase.sig.clone();
+        byte[] p = Utils.hexToBytes("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f");
+        System.arraycopy(p, 0, sig, 0, 32);
+
+        EdDSABatchVerifier verifier = new EdDSABatchVerifier();
+        verifier.add(key, testCase.message, sig);
+        assertThat(verifier.verify(), is(equalTo(new boolean[] { false })));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+
+/**
+ * Measures how {@link EdDSABulk#signAll} and {@link EdDSABulk#verifyAll}
+ * scale from one thread to all available processors. Not a unit test; run
+ * it from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.EdDSABulkBenchmark [messages] [message size] [max threads]
+ * </pre>
+ * Each cell is the best of {@link #ROUNDS} rounds, on a fixed thread pool
+ * of that many threads. The thread counts double from 1 up to the
+ * maximum, which defaults to the number of available processors.
+ */
+public class EdDSABulkBenchmark {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        SecureRandom random = new SecureRandom();
+        KeyPair pair = new KeyPairGenerator().generateKeyPair();
+        EdDSAPrivateKey privKey = (EdDSAPrivateKey) pair.getPrivate();
+        EdDSAPublicKey pubKey = (EdDSAPublicKey) pair.getPublic();
+        List<byte[]> messages = new ArrayList<byte[]>(n);
+        for (int i = 0; i < n; i++) {
+            byte[] m = new byte[size];
+            random.nextBytes(m);
+            messages.add(m);
+        }
+
+        System.out.println(String.format("%d messages of %d bytes, %d processors available",
+                n, size, Runtime.getRuntime().availableProcessors()));
+        System.out.println("threads  sign (us/op)  speedup  verify (us/op)  speedup");
+        double sign1 = 0, verify1 = 0;
+        for (int threads = 1; threads <= maxThreads; threads = next(threads, maxThreads)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<byte[]> signatures = EdDSABulk.signAll(messages, privKey, executor);
+                // Warm up both paths before timing them
+                check(EdDSABulk.verifyAll(messages, signatures, pubKey, executor), n);
+
+                long sign = Long.MAX_VALUE, verify = Long.MAX_VALUE;
+                for (int r = 0; r < ROUNDS; r++) {
+                    long start = System.nanoTime();
+                    signatures = EdDSABulk.signAll(messages, privKey, executor);
+                    sign = Math.min(sign, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    BitSet valid = EdDSABulk.verifyAll(messages, signatures, pubKey, executor);
+                    verify = Math.min(verify, System.nanoTime() - start);
+                    check(valid, n);
+                }
+                double signUs = sign / 1000.0 / n;
+                double verifyUs = verify / 1000.0 / n;
+                if (threads == 1) {
+                    sign1 = signUs;
+                    verify1 = verifyUs;
+                }
+                System.out.println(String.format("%7d  %12.1f  %6.2fx  %14.1f  %6.2fx",
+                        threads, signUs, sign1 / signUs, verifyUs, verify1 / verifyUs));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return the next thread count, doubling but not skipping the maximum.
+     */
+    static int next(int threads, int maxThreads) {
+        if (threads == maxThreads)
+            return maxThreads + 1;
+        return Math.min(2 * threads, maxThreads);
+    }
+
+    private static void check(BitSet valid, int n) {
+        if (valid.cardinality() != n)
+            throw new IllegalStateException("only " + valid.cardinality() + " of " + n + " signatures verified");
+    }
+}
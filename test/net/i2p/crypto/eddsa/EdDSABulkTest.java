@@ -0,0 +1,218 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSABulkTest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSignAll() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        List<byte[]> messages = new ArrayList<byte[]>();
+        for (int i = 0; i < 50; i++)
+            messages.add(EdDSAEngineTest.TEST_MSG);
+
+        List<byte[]> sigs = EdDSABulk.signAll(messages, key, executor);
+
+        assertThat(sigs.size(), is(equalTo(50)));
+        for (byte[] sig : sigs)
+            assertThat(sig, is(equalTo(EdDSAEngineTest.TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testVerifyAll() throws Exception {
+        List<byte[]> messages = new ArrayList<byte[]>();
+        List<byte[]> sigs = new ArrayList<byte[]>();
+        List<EdDSAPublicKey> keys = new ArrayList<EdDSAPublicKey>();
+        BitSet expected = new BitSet();
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (messages.size() == 64)
+                break;
+            byte[] sig = testCase.sig;
+            if (messages.size() % 5 == 0) {
+                sig = sig.clone();
+                sig[10] ^= 1;
+            } else {
+                expected.set(messages.size());
+            }
+            messages.add(testCase.message);
+            sigs.add(sig);
+            keys.add(new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec)));
+        }
+
+        assertThat(EdDSABulk.verifyAll(messages, sigs, keys, executor), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyAllRejectsUnreducedS() throws Exception {
+        List<byte[]> messages = new ArrayList<byte[]>();
+        List<byte[]> sigs = new ArrayList<byte[]>();
+        List<EdDSAPublicKey> keys = new ArrayList<EdDSAPublicKey>();
+        BitSet expected = new BitSet();
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (messages.size() == 64)
+                break;
+            if (messages.size() % 2 == 0) {
+                sigs.add(EdDSAEngineTest.addLToS(testCase.sig));
+            } else {
+                sigs.add(testCase.sig);
+                expected.set(messages.size());
+            }
+            messages.add(testCase.message);
+            keys.add(new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec)));
+        }
+
+        assertThat(EdDSABulk.verifyAll(messages, sigs, keys, executor), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyAllSameKey() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        List<byte[]> messages = new ArrayList<byte[]>();
+        List<byte[]> sigs = new ArrayList<byte[]>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(EdDSAEngineTest.TEST_MSG);
+            sigs.add(i == 7 ? new byte[64] : EdDSAEngineTest.TEST_MSG_SIG);
+        }
+
+        BitSet expected = new BitSet();
+        expected.set(0, 10);
+        expected.clear(7);
+        assertThat(EdDSABulk.verifyAll(messages, sigs, key, executor), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyAllWrongLength() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        List<byte[]> messages = new ArrayList<byte[]>();
+        List<byte[]> sigs = new ArrayList<byte[]>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(EdDSAEngineTest.TEST_MSG);
+            sigs.add(i == 3 ? Arrays.copyOf(EdDSAEngineTest.TEST_MSG_SIG, 63) : EdDSAEngineTest.TEST_MSG_SIG);
+        }
+
+        BitSet expected = new BitSet();
+        expected.set(0, 10);
+        expected.clear(3);
+        assertThat(EdDSABulk.verifyAll(messages, sigs, key, executor), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testVerifyAllEmpty() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        assertThat(EdDSABulk.verifyAll(new ArrayList<byte[]>(), new ArrayList<byte[]>(), key, executor),
+                is(equalTo(new BitSet())));
+    }
+
+    @Test
+    public void testVerifyAllMismatchedLengths() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        List<byte[]> messages = new ArrayList<byte[]>();
+        messages.add(EdDSAEngineTest.TEST_MSG);
+
+        exception.expect(IllegalArgumentException.class);
+        EdDSABulk.verifyAll(messages, new ArrayList<byte[]>(), key, executor);
+    }
+
+    @Test
+    public void testGenerateKeyPairs() throws Exception {
+        List<KeyPair> pairs = EdDSABulk.generateKeyPairs(150, spec, new SecureRandom(), executor);
+
+        assertThat(pairs.size(), is(equalTo(150)));
+        for (KeyPair pair : pairs) {
+            EdDSAPrivateKey priv = (EdDSAPrivateKey) pair.getPrivate();
+            EdDSAPublicKey pub = (EdDSAPublicKey) pair.getPublic();
+            EdDSAPrivateKey expected = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(priv.getSeed(), spec));
+            assertThat(priv.getAbyte(), is(equalTo(expected.getAbyte())));
+            assertThat(pub.getAbyte(), is(equalTo(expected.getAbyte())));
+            assertThat(EdDSA.verify(pub, EdDSAEngineTest.TEST_MSG, EdDSA.sign(priv, EdDSAEngineTest.TEST_MSG)), is(true));
+        }
+    }
+
+    @Test
+    public void testGenerateKeys() throws Exception {
+        EdDSABulk.GeneratedKeys keys = EdDSABulk.generateKeys(70, spec, new SecureRandom(), executor);
+
+        int len = keys.getKeyLength();
+        assertThat(keys.size(), is(equalTo(70)));
+        assertThat(keys.getSeeds().length, is(equalTo(70 * len)));
+        assertThat(keys.getPublicKeys().length, is(equalTo(70 * len)));
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] seed = Arrays.copyOfRange(keys.getSeeds(), i * len, (i + 1) * len);
+            EdDSAPrivateKey expected = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(seed, spec));
+            assertThat(Arrays.copyOfRange(keys.getPublicKeys(), i * len, (i + 1) * len),
+                    is(equalTo(expected.getAbyte())));
+        }
+    }
+
+    @Test
+    public void testGenerateKeysNegativeCount() throws Exception {
+        exception.expect(IllegalArgumentException.class);
+        EdDSABulk.generateKeys(-1, spec, new SecureRandom(), executor);
+    }
+
+    @Test
+    public void testGenerateKeysTooManyForOneArray() throws Exception {
+        // 32-byte seeds: 2^26 keys would need 2^31 bytes
+        exception.expect(IllegalArgumentException.class);
+        EdDSABulk.generateKeys(Integer.MAX_VALUE / 32 + 1, spec, new SecureRandom(), executor);
+    }
+
+    @Test
+    public void testGenerateKeyPairsTooManyForOneArray() throws Exception {
+        exception.expect(IllegalArgumentException.class);
+        EdDSABulk.generateKeyPairs(Integer.MAX_VALUE / 32 + 1, spec, new SecureRandom(), executor);
+    }
+}
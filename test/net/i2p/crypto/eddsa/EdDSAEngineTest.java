@@ -15,7 +15,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.security.InvalidAlgorithmParameterException;
 import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -23,6 +29,8 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.cert.X509Certificate;
 
+import net.i2p.crypto.eddsa.spec.EdDSABufferSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAExpectedSignatureSpec;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
@@ -44,9 +52,28 @@ public class EdDSAEngineTest {
     static final byte[] TEST_MSG = "This is a secret message".getBytes(Charset.forName("UTF-8"));
     static final byte[] TEST_MSG_SIG = Utils.hexToBytes("94825896c7075c31bcb81f06dba2bdcd9dcf16e79288d4b9f87c248215c8468d475f429f3de3b4a2cf67fe17077ae19686020364d6d4fa7a0174bab4a123ba0f");
 
+    /**
+     * The group order $l$, little-endian.
+     */
+    static final byte[] L = Utils.hexToBytes("edd3f55c1a631258d69cf7a2def9de1400000000000000000000000000000010");
+
     @Rule
     public ExpectedException exception = ExpectedException.none();
 
+    /**
+     * @return the signature with $S + l$ in place of $S$.
+     */
+    static byte[] addLToS(byte[] sig) {
+        byte[] r = sig.clone();
+        int carry = 0;
+        for (int i = 0; i < 32; i++) {
+            carry += (r[32 + i] & 0xff) + (L[i] & 0xff);
+            r[32 + i] = (byte) carry;
+            carry >>= 8;
+        }
+        return r;
+    }
+
     @Test
     public void testSign() throws Exception {
         EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
@@ -82,6 +109,26 @@ public class EdDSAEngineTest {
         }
     }
 
+    /**
+     * Checks that $S + l$ is rejected, even though it gives the same point
+     * $SB$.
+     */
+    @Test
+    public void testVerifyRejectsUnreducedS() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(testCase.pk, spec);
+            PublicKey vKey = new EdDSAPublicKey(pubKey);
+            sgr.initVerify(vKey);
+
+            sgr.update(testCase.message);
+
+            assertThat("Test case " + testCase.caseNum + " failed",
+                    sgr.verify(addLToS(testCase.sig)), is(false));
+        }
+    }
+
     /**
      * Checks that a wrong-length signature throws an IAE.
      */
@@ -217,6 +264,283 @@ public class EdDSAEngineTest {
         assertThat("verifyOneShot() failed", sgr.verifyOneShot(TEST_MSG, TEST_MSG_SIG), is(true));
     }
 
+    /**
+     * Splits TEST_MSG into a direct header buffer and a heap body buffer.
+     */
+    private static ByteBuffer[] splitTestMsg() {
+        ByteBuffer header = ByteBuffer.allocateDirect(5);
+        header.put(TEST_MSG, 0, 5).flip();
+        ByteBuffer body = ByteBuffer.wrap(TEST_MSG, 5, TEST_MSG.length - 5);
+        return new ByteBuffer[] { header, body };
+    }
+
+    @Test
+    public void testSignByteBuffer() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        sgr.initSign(sKey);
+
+        ByteBuffer[] data = splitTestMsg();
+        sgr.update(data[0]);
+        sgr.update(data[1]);
+
+        assertThat("update(ByteBuffer) sign failed", sgr.sign(), is(equalTo(TEST_MSG_SIG)));
+        assertThat(data[0].hasRemaining(), is(false));
+        assertThat(data[1].hasRemaining(), is(false));
+    }
+
+    @Test
+    public void testVerifyOneShotModeByteBuffer() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+        sgr.setParameter(EdDSAEngine.ONE_SHOT_MODE);
+
+        ByteBuffer data = ByteBuffer.allocateDirect(TEST_MSG.length);
+        data.put(TEST_MSG).flip();
+        sgr.update(data);
+
+        assertThat("One-shot mode update(ByteBuffer) verify failed", sgr.verify(TEST_MSG_SIG), is(true));
+    }
+
+    @Test
+    public void testSignOneShotByteBuffers() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        sgr.initSign(sKey);
+
+        ByteBuffer[] data = splitTestMsg();
+        assertThat("signOneShot(ByteBuffer...) failed", sgr.signOneShot(data), is(equalTo(TEST_MSG_SIG)));
+        // Buffers are left untouched, and the engine is ready for reuse
+        assertThat(data[0].remaining(), is(equalTo(5)));
+        assertThat("signOneShot(ByteBuffer...) reuse failed", sgr.signOneShot(data), is(equalTo(TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testVerifyOneShotByteBuffers() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+
+        assertThat("verifyOneShot(ByteBuffer[]) failed", sgr.verifyOneShot(splitTestMsg(), TEST_MSG_SIG), is(true));
+        ByteBuffer[] truncated = splitTestMsg();
+        truncated[1].limit(truncated[1].limit() - 1);
+        assertThat(sgr.verifyOneShot(truncated, TEST_MSG_SIG), is(false));
+    }
+
+    @Test
+    public void testSignOneShotByteBuffersAfterUpdate() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        sgr.initSign(sKey);
+
+        sgr.update(TEST_MSG);
+
+        exception.expect(SignatureException.class);
+        exception.expectMessage("update() already called");
+        sgr.signOneShot(splitTestMsg());
+    }
+
+    private static File writeTempFile(byte[] data) throws Exception {
+        File file = File.createTempFile("eddsa", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testSignOneShotFile() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        sgr.initSign(sKey);
+
+        File file = writeTempFile(TEST_MSG);
+        assertThat("signOneShot(File) failed", sgr.signOneShot(file), is(equalTo(TEST_MSG_SIG)));
+        file.delete();
+    }
+
+    @Test
+    public void testVerifyOneShotFileChannel() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+
+        File file = writeTempFile(TEST_MSG);
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.position(3);
+            assertThat("verifyOneShot(FileChannel) failed", sgr.verifyOneShot(channel, TEST_MSG_SIG), is(true));
+            assertThat(channel.position(), is(equalTo(3L)));
+        } finally {
+            raf.close();
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testSignOneShotEmptyFile() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPrivateKey sKey = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec));
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        sgr.initSign(sKey);
+
+        File file = writeTempFile(new byte[0]);
+        byte[] sig = sgr.signOneShot(file);
+        assertThat(sig, is(equalTo(sgr.signOneShot(new byte[0]))));
+
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+        assertThat(sgr.verifyOneShot(file, sig), is(true));
+        file.delete();
+    }
+
+    private static File createTempDirectory() throws Exception {
+        File dir = File.createTempFile("eddsa", "");
+        dir.delete();
+        dir.mkdir();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    @Test
+    public void testSignBufferSpill() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        File dir = createTempDirectory();
+        sgr.initSign(sKey);
+        sgr.setParameter(new EdDSABufferSpec(10, dir));
+
+        sgr.update(TEST_MSG, 0, 8);
+        assertThat(dir.list().length, is(equalTo(0)));
+        sgr.update(TEST_MSG[8]);
+        sgr.update(TEST_MSG, 9, TEST_MSG.length - 9);
+        assertThat(dir.list().length, is(equalTo(1)));
+
+        assertThat("Spilled sign failed", sgr.sign(), is(equalTo(TEST_MSG_SIG)));
+        assertThat(dir.list().length, is(equalTo(0)));
+
+        // The setting persists, and short messages stay in memory
+        sgr.update(TEST_MSG, 0, 10);
+        assertThat(dir.list().length, is(equalTo(0)));
+        sgr.update(TEST_MSG, 10, TEST_MSG.length - 10);
+        assertThat("Spilled sign reuse failed", sgr.sign(), is(equalTo(TEST_MSG_SIG)));
+        dir.delete();
+    }
+
+    @Test
+    public void testVerifyBufferSpill() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+        sgr.setParameter(new EdDSABufferSpec(0));
+
+        sgr.update(TEST_MSG);
+
+        assertThat("Spilled verify failed", sgr.verify(TEST_MSG_SIG), is(true));
+    }
+
+    @Test
+    public void testBufferSpecAfterUpdate() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        sgr.initVerify(new EdDSAPublicKey(pubKey));
+
+        sgr.update(TEST_MSG);
+
+        exception.expect(InvalidAlgorithmParameterException.class);
+        exception.expectMessage("update() already called");
+        sgr.setParameter(new EdDSABufferSpec(0));
+    }
+
+    @Test
+    public void testVerifyExpectedSignature() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+        sgr.setParameter(new EdDSAExpectedSignatureSpec(TEST_MSG_SIG));
+
+        sgr.update(TEST_MSG, 0, 5);
+        sgr.update(TEST_MSG[5]);
+        sgr.update(ByteBuffer.wrap(TEST_MSG, 6, TEST_MSG.length - 6));
+
+        assertThat("Expected signature verify failed", sgr.verify(TEST_MSG_SIG), is(true));
+
+        // The engine is back to normal afterwards
+        sgr.update(TEST_MSG);
+        assertThat("Verify after expected signature failed", sgr.verify(TEST_MSG_SIG), is(true));
+    }
+
+    @Test
+    public void testVerifyExpectedSignatureWrongMessage() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+        sgr.setParameter(new EdDSAExpectedSignatureSpec(TEST_MSG_SIG));
+
+        sgr.update(TEST_MSG, 1, TEST_MSG.length - 1);
+
+        assertThat(sgr.verify(TEST_MSG_SIG), is(false));
+    }
+
+    @Test
+    public void testVerifyExpectedSignatureMismatch() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(TEST_PK, spec);
+        PublicKey vKey = new EdDSAPublicKey(pubKey);
+        sgr.initVerify(vKey);
+        sgr.setParameter(new EdDSAExpectedSignatureSpec(TEST_MSG_SIG));
+
+        sgr.update(TEST_MSG);
+
+        byte[] sig = TEST_MSG_SIG.clone();
+        sig[0] ^= 1;
+        exception.expect(SignatureException.class);
+        exception.expectMessage("signature does not match expected signature");
+        sgr.verify(sig);
+    }
+
+    @Test
+    public void testSignExpectedSignature() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        EdDSAPrivateKeySpec privKey = new EdDSAPrivateKeySpec(TEST_SEED, spec);
+        PrivateKey sKey = new EdDSAPrivateKey(privKey);
+        sgr.initSign(sKey);
+
+        exception.expect(InvalidAlgorithmParameterException.class);
+        exception.expectMessage("expected signature requires initVerify()");
+        sgr.setParameter(new EdDSAExpectedSignatureSpec(TEST_MSG_SIG));
+    }
+
     @Test
     public void testVerifyX509PublicKeyInfo() throws Exception {
         EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName("Ed25519");
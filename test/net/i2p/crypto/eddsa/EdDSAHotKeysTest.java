@@ -0,0 +1,106 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSAHotKeysTest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        EdDSAHotKeys.reset();
+    }
+
+    @After
+    public void tearDown() {
+        EdDSAHotKeys.reset();
+        EdDSAHotKeys.setPromotionThreshold(EdDSAHotKeys.DEFAULT_PROMOTION_THRESHOLD);
+        EdDSAHotKeys.setMaxPromotedKeys(EdDSAHotKeys.DEFAULT_MAX_PROMOTED_KEYS);
+    }
+
+    @Test
+    public void testPromotedKeyVerifies() {
+        EdDSAHotKeys.setPromotionThreshold(3);
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        byte[] badSig = EdDSAEngineTest.TEST_MSG_SIG.clone();
+        badSig[40] ^= 1;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, EdDSAEngineTest.TEST_MSG_SIG), is(true));
+            assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, badSig), is(false));
+        }
+        assertThat(EdDSAHotKeys.getPromotedKeyCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testPromotionRespectsBudget() {
+        EdDSAHotKeys.setPromotionThreshold(1);
+        EdDSAHotKeys.setMaxPromotedKeys(2);
+
+        List<EdDSAPublicKey> keys = new ArrayList<EdDSAPublicKey>();
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (keys.size() == 5)
+                break;
+            EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+            keys.add(key);
+            for (int i = 0; i < 3; i++)
+                assertThat(EdDSA.verify(key, testCase.message, testCase.sig), is(true));
+        }
+        assertThat(EdDSAHotKeys.getPromotedKeyCount(), is(equalTo(2)));
+    }
+
+    @Test
+    public void testNoPromotionWhenDisabled() {
+        EdDSAHotKeys.setPromotionThreshold(1);
+        EdDSAHotKeys.setMaxPromotedKeys(0);
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+
+        for (int i = 0; i < 3; i++)
+            assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, EdDSAEngineTest.TEST_MSG_SIG), is(true));
+        assertThat(EdDSAHotKeys.getPromotedKeyCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testThresholdMustBePositive() {
+        exception.expect(IllegalArgumentException.class);
+        EdDSAHotKeys.setPromotionThreshold(0);
+    }
+
+    @Test
+    public void testMaxPromotedKeysMustNotBeNegative() {
+        exception.expect(IllegalArgumentException.class);
+        EdDSAHotKeys.setMaxPromotedKeys(-1);
+    }
+}
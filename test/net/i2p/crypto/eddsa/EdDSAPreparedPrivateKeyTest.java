@@ -0,0 +1,97 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSAPreparedPrivateKeyTest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Test
+    public void testSign() {
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(testCase.seed, spec));
+            EdDSAPreparedPrivateKey prepared = new EdDSAPreparedPrivateKey(key);
+            assertThat(prepared.getKey(), is(sameInstance(key)));
+            assertThat("Test case " + testCase.caseNum + " failed",
+                    prepared.sign(testCase.message), is(equalTo(testCase.sig)));
+        }
+    }
+
+    @Test
+    public void testSignRepeatedly() {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        EdDSAPreparedPrivateKey prepared = new EdDSAPreparedPrivateKey(key);
+        for (int i = 0; i < 3; i++) {
+            assertThat(prepared.sign(EdDSAEngineTest.TEST_MSG), is(equalTo(EdDSAEngineTest.TEST_MSG_SIG)));
+        }
+    }
+
+    @Test
+    public void testSignWithOffset() {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        byte[] data = new byte[EdDSAEngineTest.TEST_MSG.length + 7];
+        System.arraycopy(EdDSAEngineTest.TEST_MSG, 0, data, 3, EdDSAEngineTest.TEST_MSG.length);
+        assertThat(new EdDSAPreparedPrivateKey(key).sign(data, 3, EdDSAEngineTest.TEST_MSG.length),
+                is(equalTo(EdDSAEngineTest.TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testSignAllMatchesSignOneShot() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        byte[][] messages = new byte[5][];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new byte[i * 11];
+            for (int j = 0; j < messages[i].length; j++)
+                messages[i][j] = (byte) (i + j);
+        }
+
+        byte[][] sigs = new EdDSAPreparedPrivateKey(key).signAll(messages);
+
+        EdDSAEngine engine = new EdDSAEngine();
+        engine.initSign(key);
+        assertThat(sigs.length, is(equalTo(messages.length)));
+        for (int i = 0; i < messages.length; i++) {
+            assertThat(sigs[i], is(equalTo(engine.signOneShot(messages[i]))));
+        }
+    }
+
+    @Test
+    public void testSignAllTestVectors() {
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(testCase.seed, spec));
+            byte[][] sigs = new EdDSAPreparedPrivateKey(key).signAll(
+                    new byte[][] { testCase.message, testCase.message });
+            assertThat("Test case " + testCase.caseNum + " failed", sigs[0], is(equalTo(testCase.sig)));
+            assertThat("Test case " + testCase.caseNum + " failed", sigs[1], is(equalTo(testCase.sig)));
+        }
+    }
+
+    @Test
+    public void testSignAllEmpty() {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        assertThat(new EdDSAPreparedPrivateKey(key).signAll(new byte[0][]).length, is(equalTo(0)));
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSAPublicKeyCacheTest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testGetReturnsCachedKey() {
+        EdDSAPublicKeyCache cache = new EdDSAPublicKeyCache(10, spec);
+        EdDSAPublicKey key = cache.get(EdDSAEngineTest.TEST_PK);
+
+        assertThat(key.getAbyte(), is(equalTo(EdDSAEngineTest.TEST_PK)));
+        assertThat(cache.get(EdDSAEngineTest.TEST_PK.clone()), is(sameInstance(key)));
+        assertThat(cache.getHitCount(), is(equalTo(1L)));
+        assertThat(cache.getMissCount(), is(equalTo(1L)));
+        assertThat(cache.size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testCachedKeyVerifies() throws Exception {
+        EdDSAPublicKeyCache cache = new EdDSAPublicKeyCache(10, spec);
+        EdDSAPublicKey key = cache.get(EdDSAEngineTest.TEST_PK);
+
+        assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, EdDSAEngineTest.TEST_MSG_SIG), is(true));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        EdDSAPublicKeyCache cache = new EdDSAPublicKeyCache(2, spec);
+        Iterator<Ed25519TestVectors.TestTuple> cases = Ed25519TestVectors.testCases.iterator();
+        byte[] pk1 = cases.next().pk;
+        byte[] pk2 = cases.next().pk;
+        byte[] pk3 = cases.next().pk;
+
+        EdDSAPublicKey key1 = cache.get(pk1);
+        EdDSAPublicKey key2 = cache.get(pk2);
+        // Make pk1 the most recently used
+        cache.get(pk1);
+        cache.get(pk3);
+
+        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(cache.getEvictionCount(), is(equalTo(1L)));
+        assertThat(cache.get(pk1), is(sameInstance(key1)));
+        assertThat(cache.get(pk2), is(not(sameInstance(key2))));
+    }
+
+    @Test
+    public void testConcurrentGet() throws Exception {
+        final EdDSAPublicKeyCache cache = new EdDSAPublicKeyCache(64, spec);
+        final List<byte[]> pks = new ArrayList<byte[]>();
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (pks.size() == 128)
+                break;
+            pks.add(testCase.pk);
+        }
+        final int threads = 8;
+        final int lookups = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < lookups; i++) {
+                            // Mostly the first 32 keys, so some lookups hit
+                            byte[] pk = pks.get(random.nextInt(4) == 0 ? random.nextInt(pks.size()) : random.nextInt(32));
+                            if (!Arrays.equals(cache.get(pk).getAbyte(), pk))
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertThat(result.get(), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.getHitCount() + cache.getMissCount(), is(equalTo((long) threads * lookups)));
+        assertThat(cache.size() <= cache.getMaxSize(), is(true));
+        assertThat(cache.getHitCount() > 0, is(true));
+    }
+
+    @Test
+    public void testInvalidKeyIsNotCached() {
+        EdDSAPublicKeyCache cache = new EdDSAPublicKeyCache(2, spec);
+
+        exception.expect(IllegalArgumentException.class);
+        try {
+            cache.get(new byte[31]);
+        } finally {
+            assertThat(cache.size(), is(equalTo(0)));
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class EdDSASecurityProviderTest {
         KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EdDSA", "EdDSA");
         KeyFactory keyFac = KeyFactory.getInstance("EdDSA", "EdDSA");
         Signature sgr = Signature.getInstance("NONEwithEdDSA", "EdDSA");
+        Signature sgrPh = Signature.getInstance("Ed25519ph", "EdDSA");
 
         Security.removeProvider("EdDSA");
     }
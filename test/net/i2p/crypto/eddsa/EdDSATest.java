@@ -0,0 +1,112 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class EdDSATest {
+    static final EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    @Test
+    public void testSign() {
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(testCase.seed, spec));
+            assertThat("Test case " + testCase.caseNum + " failed",
+                    EdDSA.sign(key, testCase.message), is(equalTo(testCase.sig)));
+        }
+    }
+
+    @Test
+    public void testSignWithOffset() {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(EdDSAEngineTest.TEST_SEED, spec));
+        byte[] data = new byte[EdDSAEngineTest.TEST_MSG.length + 7];
+        System.arraycopy(EdDSAEngineTest.TEST_MSG, 0, data, 3, EdDSAEngineTest.TEST_MSG.length);
+        assertThat(EdDSA.sign(key, data, 3, EdDSAEngineTest.TEST_MSG.length),
+                is(equalTo(EdDSAEngineTest.TEST_MSG_SIG)));
+    }
+
+    @Test
+    public void testVerify() {
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+            assertThat("Test case " + testCase.caseNum + " failed",
+                    EdDSA.verify(key, testCase.message, testCase.sig), is(true));
+        }
+    }
+
+    @Test
+    public void testVerifyWrongMessage() {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, 1, EdDSAEngineTest.TEST_MSG.length - 1,
+                EdDSAEngineTest.TEST_MSG_SIG), is(false));
+    }
+
+    @Test
+    public void testVerifyWrongSignatureLength() {
+        EdDSAPublicKey key = new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAEngineTest.TEST_PK, spec));
+        assertThat(EdDSA.verify(key, EdDSAEngineTest.TEST_MSG, new byte[63]), is(false));
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        final List<EdDSAPrivateKey> sKeys = new ArrayList<EdDSAPrivateKey>();
+        final List<EdDSAPublicKey> vKeys = new ArrayList<EdDSAPublicKey>();
+        final List<Ed25519TestVectors.TestTuple> cases = new ArrayList<Ed25519TestVectors.TestTuple>();
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            if (cases.size() == 32)
+                break;
+            sKeys.add(new EdDSAPrivateKey(new EdDSAPrivateKeySpec(testCase.seed, spec)));
+            vKeys.add(new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec)));
+            cases.add(testCase);
+        }
+
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < cases.size(); i++) {
+                        Ed25519TestVectors.TestTuple testCase = cases.get(i);
+                        byte[] sig = EdDSA.sign(sKeys.get(i), testCase.message);
+                        if (!Arrays.equals(sig, testCase.sig) ||
+                                !EdDSA.verify(vKeys.get(i), testCase.message, sig))
+                            failures.incrementAndGet();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertThat(failures.get(), is(equalTo(0)));
+    }
+}
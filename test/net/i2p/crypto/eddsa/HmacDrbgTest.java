@@ -0,0 +1,76 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * The expected outputs were computed with a separate implementation of
+ * SP 800-90A HMAC_DRBG on top of Python's hmac module.
+ *
+ * @author str4d
+ *
+ */
+public class HmacDrbgTest {
+    static final byte[] ENTROPY = Utils.hexToBytes("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f");
+    static final byte[] NONCE = Utils.hexToBytes("202122232425262728292a2b2c2d2e2f");
+    static final byte[] RESEED_ENTROPY = Utils.hexToBytes("303132333435363738393a3b3c3d3e3f404142434445464748494a4b4c4d4e4f");
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testGenerate() {
+        HmacDrbg drbg = new HmacDrbg(ENTROPY, NONCE, "EdDSA-Java".getBytes());
+        byte[] out = new byte[100];
+        drbg.generate(out, null);
+        assertThat(out, is(equalTo(Utils.hexToBytes(
+                "c49e917425b905ff637b9bc6ecee65dcff4123e2d67d9b68796eb13f0a682798"
+                + "f7643a5d4318df19751cb55cf2c40a15acd28e3061f96dfb14e7d82835ff6c51"
+                + "83c8ad6768e6bed32d0aa8b8688a2b2e60426cdeb5d90571536655569b600564"
+                + "fc8ae911"))));
+        out = new byte[64];
+        drbg.generate(out, null);
+        assertThat(out, is(equalTo(Utils.hexToBytes(
+                "36c84a0e327b1dc59a3d4265a0abd0c5eaf735ba6a94cc8390214dd71e7dd199"
+                + "fc648d1f43a2b96d3f55070763bb2259454c32239a6250ac75f647f59e2fceaf"))));
+
+        drbg.reseed(RESEED_ENTROPY, "extra".getBytes());
+        out = new byte[40];
+        drbg.generate(out, "more".getBytes());
+        assertThat(out, is(equalTo(Utils.hexToBytes(
+                "18d10fdb3e5f1557a34729e23c7296cd1dc1770b4818c735f04af514224d0d1c"
+                + "840e9ea33fff9446"))));
+    }
+
+    @Test
+    public void testGenerateWithoutPersonalization() {
+        HmacDrbg drbg = new HmacDrbg(ENTROPY, NONCE, null);
+        byte[] out = new byte[32];
+        drbg.generate(out, null);
+        assertThat(out, is(equalTo(Utils.hexToBytes(
+                "5a947e2ec811344b506f321e3f1fbde3fde96845301a7c1793e72b2071e1d984"))));
+    }
+
+    @Test
+    public void testRequestTooLong() {
+        HmacDrbg drbg = new HmacDrbg(ENTROPY, NONCE, null);
+        exception.expect(IllegalArgumentException.class);
+        drbg.generate(new byte[HmacDrbg.MAX_BYTES_PER_REQUEST + 1], null);
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class MessageBufferTest {
+    private File dir;
+
+    /**
+     * Fails the first write to the temporary file.
+     */
+    private static class FailingBuffer extends MessageBuffer {
+        boolean fail = true;
+
+        FailingBuffer(long threshold, File directory) {
+            super(threshold, directory);
+        }
+
+        @Override
+        OutputStream open(File f) throws IOException {
+            if (!fail)
+                return super.open(f);
+            return new FileOutputStream(f) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    throw new IOException("disk full");
+                }
+            };
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("eddsa", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : dir.listFiles())
+            f.delete();
+        dir.delete();
+    }
+
+    private static byte[] contents(MessageBuffer buffer) throws IOException {
+        ByteBuffer[] segments = buffer.segments();
+        ByteBuffer all = ByteBuffer.allocate((int) buffer.size());
+        for (ByteBuffer segment : segments)
+            all.put(segment);
+        return all.array();
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        MessageBuffer buffer = new MessageBuffer(4, dir);
+        buffer.write(EdDSAEngineTest.TEST_MSG, 0, 4);
+        assertThat(dir.list().length, is(equalTo(0)));
+        buffer.write(EdDSAEngineTest.TEST_MSG, 4, EdDSAEngineTest.TEST_MSG.length - 4);
+        assertThat(dir.list().length, is(equalTo(1)));
+        assertThat(contents(buffer), is(equalTo(EdDSAEngineTest.TEST_MSG)));
+
+        buffer.reset();
+        assertThat(dir.list().length, is(equalTo(0)));
+    }
+
+    @Test
+    public void testResetReleasesLargeBuffer() throws Exception {
+        MessageBuffer buffer = new MessageBuffer(Long.MAX_VALUE, dir);
+        buffer.write(new byte[4 * MessageBuffer.RETAINED_CAPACITY], 0, 4 * MessageBuffer.RETAINED_CAPACITY);
+        buffer.reset();
+        assertThat(buffer.capacity() <= MessageBuffer.RETAINED_CAPACITY, is(true));
+
+        // A small buffer is kept for the next message
+        buffer.write(EdDSAEngineTest.TEST_MSG, 0, EdDSAEngineTest.TEST_MSG.length);
+        int capacity = buffer.capacity();
+        buffer.reset();
+        assertThat(buffer.capacity(), is(equalTo(capacity)));
+        buffer.write(EdDSAEngineTest.TEST_MSG, 0, EdDSAEngineTest.TEST_MSG.length);
+        assertThat(contents(buffer), is(equalTo(EdDSAEngineTest.TEST_MSG)));
+    }
+
+    @Test
+    public void testFailedSpillDeletesFile() throws Exception {
+        FailingBuffer buffer = new FailingBuffer(4, dir);
+        buffer.write(EdDSAEngineTest.TEST_MSG, 0, 4);
+
+        try {
+            buffer.write(EdDSAEngineTest.TEST_MSG, 4, EdDSAEngineTest.TEST_MSG.length - 4);
+            throw new AssertionError("spill did not fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is(equalTo("disk full")));
+        }
+
+        // The file is gone, and the message so far is still in memory
+        assertThat(dir.list().length, is(equalTo(0)));
+        assertThat(buffer.size(), is(equalTo(4L)));
+
+        // The next write spills again
+        buffer.fail = false;
+        buffer.write(EdDSAEngineTest.TEST_MSG, 4, EdDSAEngineTest.TEST_MSG.length - 4);
+        assertThat(dir.list().length, is(equalTo(1)));
+        assertThat(contents(buffer), is(equalTo(EdDSAEngineTest.TEST_MSG)));
+        buffer.reset();
+        assertThat(dir.list().length, is(equalTo(0)));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.SecureRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures raw nextBytes(32) and key generation throughput against the
+ * number of threads, with one {@link SecureRandom} shared by all threads
+ * and with {@link ThreadLocalSecureRandom}. Not a unit test; run it from
+ * the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.ThreadLocalSecureRandomBenchmark [seconds per cell] [max threads]
+ * </pre>
+ * The shared SecureRandom is the system default (NativePRNG on Linux),
+ * whose nextBytes() takes a lock, so on many cores its columns show the
+ * contention that ThreadLocalSecureRandom avoids. The thread counts
+ * double from 1 up to the maximum, which defaults to twice the number of
+ * available processors.
+ */
+public class ThreadLocalSecureRandomBenchmark {
+    /**
+     * One unit of work, run repeatedly by every thread.
+     */
+    private interface Task {
+        void run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+        long duration = (long) (seconds * 1e9);
+
+        final SecureRandom shared = new SecureRandom();
+        final ThreadLocalSecureRandom perThread = new ThreadLocalSecureRandom();
+        System.out.println(String.format("shared: %s, %d processors available",
+                shared.getAlgorithm(), Runtime.getRuntime().availableProcessors()));
+        System.out.println("threads   nextBytes(32)/s            keygen/s");
+        System.out.println("          shared      per-thread     shared      per-thread");
+        for (int threads = 1; threads <= maxThreads; threads = EdDSABulkBenchmark.next(threads, maxThreads)) {
+            double sharedBytes = measure(threads, duration, nextBytes(shared));
+            double perThreadBytes = measure(threads, duration, nextBytes(perThread));
+            double sharedKeys = measure(threads, duration, generateKeyPair(shared));
+            double perThreadKeys = measure(threads, duration, generateKeyPair(perThread));
+            System.out.println(String.format("%7d   %9.0f   %9.0f      %9.0f   %9.0f",
+                    threads, sharedBytes, perThreadBytes, sharedKeys, perThreadKeys));
+        }
+    }
+
+    private static Task nextBytes(final SecureRandom random) {
+        return new Task() {
+            public void run() {
+                // As KeyPairGenerator does for every seed
+                random.nextBytes(new byte[32]);
+            }
+        };
+    }
+
+    /**
+     * @param random the source of the seeds, the same for every thread.
+     */
+    private static Task generateKeyPair(final SecureRandom random) {
+        return new Task() {
+            public void run() {
+                // One generator per call, as a server handling requests would
+                KeyPairGenerator generator = new KeyPairGenerator();
+                generator.initialize(256, random);
+                generator.generateKeyPair();
+            }
+        };
+    }
+
+    /**
+     * Runs the task on the given number of threads for the given time,
+     * after a warm-up of the same length.
+     *
+     * @return the total number of runs per second, across all threads.
+     */
+    private static double measure(int threads, long duration, final Task task) throws InterruptedException {
+        measure(threads, duration, task, new AtomicLong());
+        AtomicLong count = new AtomicLong();
+        long elapsed = measure(threads, duration, task, count);
+        return count.get() * 1e9 / elapsed;
+    }
+
+    private static long measure(int threads, long duration, final Task task, final AtomicLong count)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean stop = new AtomicBoolean();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long n = 0;
+                    while (!stop.get()) {
+                        task.run();
+                        n++;
+                    }
+                    count.addAndGet(n);
+                }
+            };
+            workers[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(duration / 1000000, (int) (duration % 1000000));
+        stop.set(true);
+        for (Thread w : workers) {
+            w.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class ThreadLocalSecureRandomTest {
+    @Test
+    public void testNextBytes() {
+        SecureRandom random = new ThreadLocalSecureRandom();
+        byte[] a = new byte[32];
+        byte[] b = new byte[32];
+        random.nextBytes(a);
+        random.nextBytes(b);
+        assertThat(a, is(not(equalTo(new byte[32]))));
+        assertThat(a, is(not(equalTo(b))));
+    }
+
+    @Test
+    public void testNextBytesLongerThanOneRequest() {
+        byte[] out = new byte[HmacDrbg.MAX_BYTES_PER_REQUEST * 2 + 5];
+        new ThreadLocalSecureRandom().nextBytes(out);
+        byte[] first = Arrays.copyOfRange(out, 0, 64);
+        byte[] second = Arrays.copyOfRange(out, HmacDrbg.MAX_BYTES_PER_REQUEST, HmacDrbg.MAX_BYTES_PER_REQUEST + 64);
+        assertThat(first, is(not(equalTo(second))));
+        assertThat(Arrays.copyOfRange(out, out.length - 5, out.length), is(not(equalTo(new byte[5]))));
+    }
+
+    @Test
+    public void testNextBytesAcrossBuffer() {
+        SecureRandom random = new ThreadLocalSecureRandom();
+        random.setSeed(new byte[] { 1 });
+        byte[] a = new byte[ThreadLocalSecureRandom.BUFFER_SIZE - 16];
+        byte[] b = new byte[64];
+        random.nextBytes(a);
+        random.nextBytes(b);
+        assertThat(Arrays.copyOfRange(b, 0, 16), is(not(equalTo(new byte[16]))));
+        assertThat(Arrays.copyOfRange(b, 16, 64), is(not(equalTo(new byte[48]))));
+        assertThat(Arrays.copyOfRange(b, 0, 16), is(not(equalTo(Arrays.copyOfRange(b, 16, 32)))));
+    }
+
+    @Test
+    public void testThreadsHaveDistinctStreams() throws Exception {
+        final SecureRandom random = new ThreadLocalSecureRandom();
+        final byte[][] out = new byte[2][32];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int j = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    random.nextBytes(out[j]);
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        assertThat(out[0], is(not(equalTo(out[1]))));
+        assertThat(out[0], is(not(equalTo(new byte[32]))));
+    }
+
+    @Test
+    public void testSetSeedChangesStream() {
+        SecureRandom random = new ThreadLocalSecureRandom();
+        random.setSeed(new byte[] { 1, 2, 3 });
+        random.setSeed(42L);
+        byte[] out = new byte[32];
+        random.nextBytes(out);
+        assertThat(out, is(not(equalTo(new byte[32]))));
+    }
+
+    @Test
+    public void testDefaultForKeyPairGenerator() {
+        KeyPairGenerator keyGen = new KeyPairGenerator();
+        KeyPair a = keyGen.generateKeyPair();
+        KeyPair b = keyGen.generateKeyPair();
+        assertThat(((EdDSAPrivateKey) a.getPrivate()).getSeed(),
+                is(not(equalTo(((EdDSAPrivateKey) b.getPrivate()).getSeed()))));
+    }
+
+    @Test
+    public void testDefaultForKeyPairGeneratorWithNullRandom() throws Exception {
+        KeyPairGenerator keyGen = new KeyPairGenerator();
+        keyGen.initialize(256, null);
+        KeyPair a = keyGen.generateKeyPair();
+        KeyPair b = keyGen.generateKeyPair();
+        assertThat(((EdDSAPrivateKey) a.getPrivate()).getSeed(),
+                is(not(equalTo(((EdDSAPrivateKey) b.getPrivate()).getSeed()))));
+
+        keyGen = new KeyPairGenerator();
+        keyGen.initialize(EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519), null);
+        a = keyGen.generateKeyPair();
+        b = keyGen.generateKeyPair();
+        assertThat(((EdDSAPrivateKey) a.getPrivate()).getSeed(),
+                is(not(equalTo(((EdDSAPrivateKey) b.getPrivate()).getSeed()))));
+    }
+}
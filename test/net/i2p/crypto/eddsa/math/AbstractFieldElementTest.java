@@ -188,6 +188,49 @@ public abstract class AbstractFieldElementTest {
         }
     }
 
+    @Test
+    public void sqrtRatioReturnsCorrectResult() {
+        // Arrange:
+        final BigInteger q = getQ();
+        final BigInteger minusOne = q.subtract(BigInteger.ONE);
+        // 2 is not a square mod q, so 2^((q-1)/4) is a square root of -1
+        final FieldElement i = toFieldElement(new BigInteger("2").modPow(minusOne.shiftRight(2), q));
+        int squares = 0;
+        for (int j=0; j<1000; j++) {
+            final FieldElement u = getRandomFieldElement();
+            final FieldElement v = getRandomFieldElement();
+            final BigInteger bu = toBigInteger(u).mod(q);
+            final BigInteger bv = toBigInteger(v).mod(q);
+            final BigInteger ratio = bu.multiply(bv.modInverse(q)).mod(q);
+
+            // Act:
+            final FieldElement x = u.sqrtRatio(v, i);
+
+            // Assert:
+            if (ratio.modPow(minusOne.shiftRight(1), q).equals(minusOne)) {
+                Assert.assertThat(x, IsNull.nullValue());
+            } else {
+                final BigInteger bx = toBigInteger(x);
+                Assert.assertThat(bv.multiply(bx).multiply(bx).mod(q), IsEqual.equalTo(bu));
+                squares++;
+            }
+        }
+        Assert.assertThat(squares > 0 && squares < 1000, IsEqual.equalTo(true));
+        Assert.assertThat(toBigInteger(getZeroFieldElement().sqrtRatio(getNonZeroFieldElement(), i)).mod(q), IsEqual.equalTo(BigInteger.ZERO));
+    }
+
+    /**
+     * @return the element of the field with value b, from its little-endian encoding.
+     */
+    private FieldElement toFieldElement(BigInteger b) {
+        final byte[] be = b.toByteArray();
+        final byte[] le = new byte[getField().getb()/8];
+        for (int j=0; j<be.length && j<le.length; j++) {
+            le[j] = be[be.length - 1 - j];
+        }
+        return getField().fromByteArray(le);
+    }
+
     // endregion
 
     // region cmov
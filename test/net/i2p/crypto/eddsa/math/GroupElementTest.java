@@ -12,6 +12,8 @@
 package net.i2p.crypto.eddsa.math;
 
 import net.i2p.crypto.eddsa.*;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519FieldElement;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519Point;
 import net.i2p.crypto.eddsa.spec.*;
 import org.hamcrest.core.*;
 import org.junit.*;
@@ -205,6 +207,35 @@ public class GroupElementTest {
         }
     }
 
+    @Test
+    public void constructorUsingByteArrayAcceptsSameEncodingsAsReference() {
+        int valid = 0;
+        for (int i=0; i<200; i++) {
+            // Arrange:
+            final byte[] bytes = MathUtils.getRandomByteArray(32);
+            GroupElement expected;
+            try {
+                expected = MathUtils.toGroupElement(bytes.clone());
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+
+            // Act:
+            GroupElement h;
+            try {
+                h = new GroupElement(curve, bytes);
+                valid++;
+            } catch (IllegalArgumentException e) {
+                h = null;
+            }
+
+            // Assert:
+            Assert.assertThat(h, IsEqual.equalTo(expected));
+        }
+        // About half of all encodings are points
+        Assert.assertThat(valid > 0 && valid < 200, IsEqual.equalTo(true));
+    }
+
     /**
      * Test method for {@link GroupElement#toByteArray()}.
      * <p>
@@ -519,7 +550,34 @@ public class GroupElementTest {
     public void testPrecompute() {
         GroupElement B = ed25519.getB();
         assertThat(B.precmp, is(equalTo(PrecomputationTestVectors.testPrecmp)));
-        assertThat(B.dblPrecmp, is(equalTo(PrecomputationTestVectors.testDblPrecmp)));
+        // The base point table extends the default one
+        assertThat(B.dblPrecmp.length, is(equalTo(1 << (GroupElement.BASE_WINDOW_WIDTH - 2))));
+        assertThat(Arrays.copyOf(B.dblPrecmp, PrecomputationTestVectors.testDblPrecmp.length),
+                is(equalTo(PrecomputationTestVectors.testDblPrecmp)));
+    }
+
+    @Test
+    public void flattenedTableMatchesPrecomputedTable() {
+        // Arrange:
+        final GroupElement[][] precmp = ed25519.getB().precmp;
+        final Field f = ed25519.getCurve().getField();
+
+        // Act:
+        final int[] table = Ed25519Point.flatten(precmp);
+
+        // Assert:
+        Assert.assertThat(table.length, IsEqual.equalTo(32 * 8 * 30));
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 8; j++) {
+                final int off = (8 * i + j) * 30;
+                Assert.assertThat(new Ed25519FieldElement(f, Arrays.copyOfRange(table, off, off + 10)),
+                        IsEqual.equalTo(precmp[i][j].X));
+                Assert.assertThat(new Ed25519FieldElement(f, Arrays.copyOfRange(table, off + 10, off + 20)),
+                        IsEqual.equalTo(precmp[i][j].Y));
+                Assert.assertThat(new Ed25519FieldElement(f, Arrays.copyOfRange(table, off + 20, off + 30)),
+                        IsEqual.equalTo(precmp[i][j].Z));
+            }
+        }
     }
 
     @Test
@@ -540,6 +598,70 @@ public class GroupElementTest {
         }
     }
 
+    @Test
+    public void computedTablesContainExpectedGroupElements() {
+        // Arrange (the tables of B are loaded, those of any other point are computed):
+        final GroupElement p = MathUtils.getRandomGroupElement(true);
+
+        // Act + Assert:
+        GroupElement g = p;
+        for (int i = 0; i < 32; i++) {
+            GroupElement h = g;
+            for (int j = 0; j < 8; j++) {
+                Assert.assertThat(MathUtils.toRepresentation(h, GroupElement.Representation.PRECOMP), IsEqual.equalTo(p.precmp[i][j]));
+                h = MathUtils.addGroupElements(h, g);
+            }
+            for (int k = 0; k < 8; k++) {
+                g = MathUtils.addGroupElements(g, g);
+            }
+        }
+        g = p;
+        final GroupElement twoP = MathUtils.addGroupElements(p, p);
+        for (int i = 0; i < p.dblPrecmp.length; i++) {
+            Assert.assertThat(MathUtils.toRepresentation(g, GroupElement.Representation.PRECOMP), IsEqual.equalTo(p.dblPrecmp[i]));
+            g = MathUtils.addGroupElements(g, twoP);
+        }
+    }
+
+    @Test
+    public void toByteArrayOfManyMatchesSingle() {
+        // Arrange (in P3, P2 and P1P1 representation):
+        final GroupElement[] points = new GroupElement[9];
+        for (int i = 0; i < points.length; i++) {
+            final GroupElement g = MathUtils.getRandomGroupElement();
+            points[i] = i % 3 == 0 ? g : i % 3 == 1 ? g.toP2() : g.dbl();
+        }
+
+        // Act:
+        final byte[][] bytes = GroupElement.toByteArray(points);
+
+        // Assert:
+        Assert.assertThat(bytes.length, IsEqual.equalTo(points.length));
+        for (int i = 0; i < points.length; i++) {
+            Assert.assertThat(bytes[i], IsEqual.equalTo(points[i].toByteArray()));
+        }
+    }
+
+    @Test
+    public void invertAllMatchesInvert() {
+        for (int n = 0; n < 5; n++) {
+            // Arrange:
+            final FieldElement[] z = new FieldElement[n];
+            for (int i = 0; i < n; i++) {
+                z[i] = MathUtils.getRandomFieldElement();
+            }
+
+            // Act:
+            final FieldElement[] r = GroupElement.invertAll(z);
+
+            // Assert:
+            Assert.assertThat(r.length, IsEqual.equalTo(n));
+            for (int i = 0; i < n; i++) {
+                Assert.assertThat(r[i], IsEqual.equalTo(z[i].invert()));
+            }
+        }
+    }
+
     @Test
     public void dblPrecomputedTableContainsExpectedGroupElements() {
         // Arrange:
@@ -547,7 +669,7 @@ public class GroupElementTest {
         GroupElement h = MathUtils.addGroupElements(g, g);
 
         // Act + Assert:
-        for (int i=0; i<8; i++) {
+        for (int i=0; i<ed25519.getB().dblPrecmp.length; i++) {
             Assert.assertThat(MathUtils.toRepresentation(g, GroupElement.Representation.PRECOMP), IsEqual.equalTo(ed25519.getB().dblPrecmp[i]));
             g = MathUtils.addGroupElements(g, h);
         }
@@ -875,6 +997,184 @@ public class GroupElementTest {
         }
     }
 
+    @Test
+    public void doubleScalarMultiplyVariableTimeWithWiderTablesMatchesDefault() {
+        final GroupElement B = ed25519.getB();
+        for (int w=2; w<=GroupElement.MAX_WINDOW_WIDTH; w++) {
+            // Arrange:
+            final GroupElement g = MathUtils.getRandomGroupElement(true);
+            final GroupElement gWide = g.toP3PrecomputeDouble(w);
+            final GroupElement BWide = B.toP3PrecomputeDouble(w);
+            final byte[] a = MathUtils.getRandomFieldElement().toByteArray();
+            final byte[] b = MathUtils.getRandomFieldElement().toByteArray();
+
+            // Act:
+            final GroupElement h1 = B.doubleScalarMultiplyVariableTime(g, a, b);
+            final GroupElement h2 = B.doubleScalarMultiplyVariableTime(gWide, a, b);
+            final GroupElement h3 = BWide.doubleScalarMultiplyVariableTime(gWide, a, b);
+
+            // Assert:
+            Assert.assertThat(gWide.dblPrecmp.length, IsEqual.equalTo(1 << (w - 2)));
+            Assert.assertThat(h2, IsEqual.equalTo(h1));
+            Assert.assertThat(h3, IsEqual.equalTo(h1));
+        }
+    }
+
+    @Test
+    public void doubleScalarMultiplyVariableTimeOfManyMatchesSingle() {
+        // Arrange (an odd count, so that the last lane group is partial):
+        final GroupElement B = ed25519.getB();
+        final int n = 11;
+        final GroupElement[] g = new GroupElement[n];
+        final byte[][] a = new byte[n][];
+        final byte[][] b = new byte[n][];
+        for (int i=0; i<n; i++) {
+            g[i] = MathUtils.getRandomGroupElement(true);
+            if (i % 3 == 0)
+                g[i] = g[i].toP3PrecomputeDouble(GroupElement.MAX_WINDOW_WIDTH);
+            a[i] = MathUtils.getRandomFieldElement().toByteArray();
+            b[i] = MathUtils.getRandomFieldElement().toByteArray();
+        }
+        // A zero scalar in one lane
+        a[4] = new byte[32];
+
+        // Act:
+        final GroupElement[] h = B.doubleScalarMultiplyVariableTime(g, a, b);
+
+        // Assert:
+        Assert.assertThat(h.length, IsEqual.equalTo(n));
+        for (int i=0; i<n; i++) {
+            Assert.assertThat(h[i], IsEqual.equalTo(B.doubleScalarMultiplyVariableTime(g[i], a[i], b[i])));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toP3PrecomputeDoubleThrowsIfWidthIsTooLarge() {
+        ed25519.getB().toP3PrecomputeDouble(GroupElement.MAX_WINDOW_WIDTH + 1);
+    }
+
+    @Test
+    public void slideReconstructsScalar() {
+        for (int w=2; w<=GroupElement.MAX_WINDOW_WIDTH; w++) {
+            for (int i=0; i<20; i++) {
+                // Arrange:
+                final byte[] a = MathUtils.getRandomByteArray(32);
+                if (i == 0)
+                    Arrays.fill(a, (byte) 0xff);
+                a[31] &= 0x7f;
+
+                // Act:
+                final byte[] r = GroupElement.slide(a, w);
+
+                // Assert:
+                BigInteger sum = BigInteger.ZERO;
+                for (int j=255; j>=0; j--) {
+                    Assert.assertThat(r[j] == 0 || ((r[j] & 1) == 1 && Math.abs(r[j]) < (1 << (w - 1))),
+                            IsEqual.equalTo(true));
+                    sum = sum.shiftLeft(1).add(BigInteger.valueOf(r[j]));
+                }
+                Assert.assertThat(sum, IsEqual.equalTo(MathUtils.toBigInteger(a)));
+            }
+        }
+    }
+
+    @Test
+    public void multiScalarMultiplyVariableTimeReturnsExpectedResult() {
+        for (int i=0; i<5; i++) {
+            // Arrange:
+            final int n = 1 + i;
+            final GroupElement[] points = new GroupElement[n];
+            final byte[][] scalars = new byte[n][];
+            GroupElement expected = ed25519.getCurve().getZero(GroupElement.Representation.P3);
+            for (int j=0; j<n; j++) {
+                final FieldElement f = MathUtils.getRandomFieldElement();
+                points[j] = MathUtils.getRandomGroupElement();
+                scalars[j] = f.toByteArray();
+                expected = MathUtils.addGroupElements(expected, MathUtils.scalarMultiplyGroupElement(points[j], f));
+            }
+
+            // Act:
+            final GroupElement h = GroupElement.multiScalarMultiplyVariableTime(points, scalars);
+
+            // Assert:
+            Assert.assertThat(h, IsEqual.equalTo(expected));
+        }
+    }
+
+    @Test
+    public void multiScalarMultiplyVariableTimeMatchesDoubleScalarMultiply() {
+        final GroupElement B = ed25519.getB();
+        for (int i=0; i<10; i++) {
+            // Arrange:
+            final GroupElement g = MathUtils.getRandomGroupElement(true);
+            final byte[] a = MathUtils.getRandomFieldElement().toByteArray();
+            final byte[] b = MathUtils.getRandomFieldElement().toByteArray();
+
+            // Act:
+            final GroupElement h1 = B.doubleScalarMultiplyVariableTime(g, a, b);
+            final GroupElement h2 = GroupElement.multiScalarMultiplyVariableTime(
+                    new GroupElement[] { g, B }, new byte[][] { a, b });
+
+            // Assert:
+            Assert.assertThat(h2, IsEqual.equalTo(h1));
+        }
+    }
+
+    @Test
+    public void multiScalarMultiplyPippengerMatchesStraus() {
+        for (int n : new int[] { 1, 2, 17, 64, 300 }) {
+            // Arrange:
+            final GroupElement[] points = new GroupElement[n];
+            final GroupElement[] cached = new GroupElement[n];
+            final byte[][] scalars = new byte[n][];
+            for (int j=0; j<n; j++) {
+                points[j] = MathUtils.getRandomGroupElement();
+                cached[j] = points[j].toCached();
+                scalars[j] = MathUtils.getRandomByteArray(32);
+                scalars[j][31] &= 0x7f;
+            }
+            // Exercise the largest window and the zero scalar
+            scalars[0][31] |= 0x40;
+            if (n > 1)
+                scalars[1] = new byte[32];
+
+            // Act:
+            final GroupElement h1 = GroupElement.multiScalarMultiplyStraus(points, scalars);
+            final GroupElement h2 = GroupElement.multiScalarMultiplyPippenger(points, scalars);
+            final GroupElement h3 = GroupElement.multiScalarMultiplyPippenger(cached, scalars);
+            final GroupElement h4 = GroupElement.multiScalarMultiplyStraus(cached, scalars);
+
+            // Assert:
+            Assert.assertThat(h2, IsEqual.equalTo(h1));
+            Assert.assertThat(h3, IsEqual.equalTo(h1));
+            Assert.assertThat(h4, IsEqual.equalTo(h1));
+        }
+    }
+
+    @Test
+    public void signedRadixReconstructsScalar() {
+        for (int c=2; c<=16; c++) {
+            final int windows = 256 / c + 2;
+            for (int i=0; i<20; i++) {
+                // Arrange:
+                final byte[] a = MathUtils.getRandomByteArray(32);
+                if (i == 0)
+                    Arrays.fill(a, (byte) 0xff);
+
+                // Act:
+                final int[] e = GroupElement.signedRadix(a, c, windows);
+
+                // Assert:
+                BigInteger sum = BigInteger.ZERO;
+                for (int w=windows-1; w>=0; w--) {
+                    Assert.assertThat(e[w] >= -(1 << (c - 1)) && e[w] < (1 << (c - 1)), IsEqual.equalTo(true));
+                    sum = sum.shiftLeft(c).add(BigInteger.valueOf(e[w]));
+                }
+                Assert.assertThat(sum, IsEqual.equalTo(MathUtils.toBigInteger(a)));
+            }
+        }
+    }
+
     // endregion
 
     /**
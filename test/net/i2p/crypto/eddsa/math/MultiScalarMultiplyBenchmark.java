@@ -0,0 +1,99 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Measures Straus' and Pippenger's methods in
+ * {@link GroupElement#multiScalarMultiplyVariableTime(GroupElement[], byte[][])}
+ * across {@link GroupElement#PIPPENGER_THRESHOLD}. Not a unit test; run it
+ * from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.math.MultiScalarMultiplyBenchmark [points per round]
+ * </pre>
+ * For each number of points n, each method is run on random points and
+ * random 252-bit scalars until about the given number of points has been
+ * processed. The figures are microseconds per point, the best of
+ * {@link #ROUNDS} rounds after a warm-up round. The threshold should sit
+ * where the two columns cross.
+ */
+public class MultiScalarMultiplyBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int[] SIZES = { 2, 8, 32, 64, 96, 128, 144, 160, 176, 192, 256, 512, 1024, 4096 };
+
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * One of the two methods.
+     */
+    private interface Method {
+        GroupElement run(GroupElement[] points, byte[][] scalars);
+    }
+
+    private static final Method STRAUS = new Method() {
+        public GroupElement run(GroupElement[] points, byte[][] scalars) {
+            return GroupElement.multiScalarMultiplyStraus(points, scalars);
+        }
+    };
+
+    private static final Method PIPPENGER = new Method() {
+        public GroupElement run(GroupElement[] points, byte[][] scalars) {
+            return GroupElement.multiScalarMultiplyPippenger(points, scalars);
+        }
+    };
+
+    public static void main(String[] args) {
+        int perRound = args.length > 0 ? Integer.parseInt(args[0]) : 8192;
+
+        System.out.println(String.format("us per point, best of %d, PIPPENGER_THRESHOLD = %d",
+                ROUNDS, GroupElement.PIPPENGER_THRESHOLD));
+        System.out.println("      n    Straus  Pippenger  used");
+        for (int n : SIZES) {
+            GroupElement[] points = new GroupElement[n];
+            byte[][] scalars = new byte[n][];
+            for (int i = 0; i < n; i++) {
+                points[i] = MathUtils.getRandomGroupElement();
+                scalars[i] = new byte[32];
+                random.nextBytes(scalars[i]);
+                scalars[i][31] &= 0x0f;
+            }
+            if (!Arrays.equals(STRAUS.run(points, scalars).toByteArray(),
+                    PIPPENGER.run(points, scalars).toByteArray()))
+                throw new IllegalStateException("Straus and Pippenger disagree for n = " + n);
+
+            int reps = Math.max(1, perRound / n);
+            double straus = measure(STRAUS, points, scalars, reps);
+            double pippenger = measure(PIPPENGER, points, scalars, reps);
+            System.out.println(String.format("%7d  %8.1f  %9.1f  %s", n, straus, pippenger,
+                    n < GroupElement.PIPPENGER_THRESHOLD ? "Straus" : "Pippenger"));
+        }
+    }
+
+    private static double measure(Method method, GroupElement[] points, byte[][] scalars, int reps) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r <= ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < reps; i++) {
+                if (method.run(points, scalars) == null)
+                    throw new IllegalStateException();
+            }
+            double us = (System.nanoTime() - start) / 1000.0 / reps / points.length;
+            // Round 0 is the warm-up
+            if (r > 0)
+                best = Math.min(best, us);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * Writes src/net/i2p/crypto/eddsa/math/ed25519-base-tables.bin, and prints
+ * the CRC-32 to put in {@link PrecomputedTables}. Not a unit test; run it
+ * from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.math.PrecomputedTablesGenerator \
+ *     src/net/i2p/crypto/eddsa/math/ed25519-base-tables.bin
+ * </pre>
+ */
+public class PrecomputedTablesGenerator {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PrecomputedTablesGenerator <output file>");
+            System.exit(1);
+        }
+        EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        byte[] data = generate(ed25519.getCurve(), ed25519.getB().toByteArray());
+
+        FileOutputStream out = new FileOutputStream(args[0]);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        System.out.println(String.format("Wrote %d bytes, CRC = 0x%08xL", data.length, crc.getValue()));
+    }
+
+    /**
+     * Computes the resource for a base point, without its shipped tables.
+     *
+     * @param curve the curve of the point.
+     * @param s the encoded point.
+     * @return the contents of the resource.
+     * @throws IOException never
+     */
+    static byte[] generate(Curve curve, byte[] s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrecomputedTables.write(new GroupElement(curve, s, false), s, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class PrecomputedTablesTest {
+    static final EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    static final Curve curve = ed25519.getCurve();
+    static final byte[] BASE = Utils.hexToBytes("5866666666666666666666666666666666666666666666666666666666666666");
+
+    static byte[] readResource() throws IOException {
+        InputStream in = PrecomputedTables.class.getResourceAsStream(PrecomputedTables.RESOURCE);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1)
+                out.write(buf, 0, n);
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    static boolean read(byte[] data, byte[] s) {
+        return PrecomputedTables.read(new ByteArrayInputStream(data), curve, s,
+                new GroupElement[32][8], new GroupElement[PrecomputedTables.DOUBLE_ENTRIES]);
+    }
+
+    @Test
+    public void testResourceMatchesComputedTables() throws IOException {
+        // The point is built without tables, so nothing is read from the resource
+        assertThat(PrecomputedTablesGenerator.generate(curve, BASE), is(equalTo(readResource())));
+    }
+
+    @Test
+    public void testReadsResource() throws IOException {
+        GroupElement[][] precmp = new GroupElement[32][8];
+        GroupElement[] dblPrecmp = new GroupElement[PrecomputedTables.DOUBLE_ENTRIES];
+        assertThat(PrecomputedTables.read(new ByteArrayInputStream(readResource()), curve, BASE, precmp, dblPrecmp),
+                is(true));
+        // The contents are checked against the reference tables in GroupElementTest
+        assertThat(precmp, is(equalTo(ed25519.getB().precmp)));
+        assertThat(dblPrecmp, is(equalTo(ed25519.getB().dblPrecmp)));
+    }
+
+    @Test
+    public void testRejectsCorruptResource() throws IOException {
+        byte[] data = readResource();
+        data[data.length - 1] ^= 1;
+        assertThat(read(data, BASE), is(false));
+    }
+
+    @Test
+    public void testRejectsTruncatedResource() throws IOException {
+        byte[] data = readResource();
+        byte[] truncated = new byte[data.length - 32];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertThat(read(truncated, BASE), is(false));
+    }
+
+    @Test
+    public void testRejectsOtherPoint() throws IOException {
+        byte[] other = ed25519.getB().dbl().toP3().toByteArray();
+        assertThat(read(readResource(), other), is(false));
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * Measures the cost of decoding a point, and of the square root inside it.
+ * Not a unit test; run it from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.math.ed25519.Ed25519DecodeBenchmark [iterations]
+ * </pre>
+ * It compares {@link Ed25519FieldElement#sqrtRatio(FieldElement, FieldElement)}
+ * with the generic {@link FieldElement#sqrtRatio(FieldElement, FieldElement)},
+ * and shows how much of both is the exponentiation in pow22523. Each figure
+ * is the best of {@link #ROUNDS} rounds over 256 distinct points, after a
+ * warm-up round.
+ */
+public class Ed25519DecodeBenchmark {
+    static final EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+
+    private static final int ROUNDS = 5;
+    private static final int POINTS = 256;
+
+    /**
+     * One operation on point i.
+     */
+    private interface Operation {
+        Object run(int i);
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+        final Curve curve = ed25519.getCurve();
+        final FieldElement sqrtM1 = curve.getI();
+        final byte[][] s = new byte[POINTS][];
+        final FieldElement[] u = new FieldElement[POINTS];
+        final FieldElement[] v = new FieldElement[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            s[i] = MathUtils.getRandomGroupElement().toByteArray();
+            // As in GroupElement(Curve, byte[]): u = y^2 - 1, v = d * y^2 + 1
+            FieldElement yy = curve.getField().fromByteArray(s[i]).square();
+            u[i] = yy.subtractOne();
+            v[i] = yy.multiply(curve.getD()).addOne();
+            if (!u[i].sqrtRatio(v[i], sqrtM1).equals(genericSqrtRatio(u[i], v[i], sqrtM1)))
+                throw new IllegalStateException("fused and generic sqrtRatio disagree");
+        }
+
+        System.out.println(String.format("%d operations on %d distinct points, best of %d",
+                iterations, POINTS, ROUNDS));
+        report("pow22523", iterations, new Operation() {
+            public Object run(int i) {
+                return u[i].pow22523();
+            }
+        });
+        report("sqrtRatio, generic", iterations, new Operation() {
+            public Object run(int i) {
+                return genericSqrtRatio(u[i], v[i], sqrtM1);
+            }
+        });
+        report("sqrtRatio, fused", iterations, new Operation() {
+            public Object run(int i) {
+                return u[i].sqrtRatio(v[i], sqrtM1);
+            }
+        });
+        report("point decode", iterations, new Operation() {
+            public Object run(int i) {
+                return new GroupElement(curve, s[i]);
+            }
+        });
+    }
+
+    /**
+     * The generic version in {@link FieldElement}, which the Ed25519 field
+     * overrides.
+     */
+    static FieldElement genericSqrtRatio(FieldElement u, FieldElement v, FieldElement i) {
+        FieldElement v3 = v.square().multiply(v);
+        FieldElement x = v3.square().multiply(v).multiply(u).pow22523();
+        x = v3.multiply(u).multiply(x);
+        FieldElement vxx = x.square().multiply(v);
+        if (!vxx.subtract(u).isNonZero())
+            return x;
+        if (!vxx.add(u).isNonZero())
+            return x.multiply(i);
+        return null;
+    }
+
+    private static void report(String name, int iterations, Operation op) {
+        double best = Double.MAX_VALUE;
+        int live = 0;
+        for (int r = 0; r <= ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                if (op.run(i % POINTS) != null)
+                    live++;
+            }
+            double us = (System.nanoTime() - start) / 1000.0 / iterations;
+            // Round 0 is the warm-up
+            if (r > 0)
+                best = Math.min(best, us);
+        }
+        System.out.println(String.format("%-20s %6.2f us/op%s", name, best, live == 0 ? " (all null)" : ""));
+    }
+}
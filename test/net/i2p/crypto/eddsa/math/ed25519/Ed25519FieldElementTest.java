@@ -11,6 +11,7 @@
  */
 package net.i2p.crypto.eddsa.math.ed25519;
 
+import net.i2p.crypto.eddsa.Utils;
 import net.i2p.crypto.eddsa.math.*;
 import org.hamcrest.core.*;
 import org.junit.*;
@@ -98,5 +99,152 @@ public class Ed25519FieldElementTest extends AbstractFieldElementTest {
         Assert.assertThat(fAsString, IsEqual.equalTo(builder.toString()));
     }
 
+    // endregion
+    // region in-place arithmetic
+
+    @Test
+    public void inPlaceArithmeticMatchesAllocatingArithmetic() {
+        for (int i=0; i<100; i++) {
+            // Arrange:
+            final Ed25519FieldElement f = (Ed25519FieldElement) MathUtils.getRandomFieldElement();
+            final Ed25519FieldElement g = (Ed25519FieldElement) MathUtils.getRandomFieldElement();
+            final int[] h = f.t.clone();
+
+            // Act + Assert (h overlaps the first operand):
+            Ed25519FieldElement.mulInto(h, g.t, h);
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) f.multiply(g)).t));
+            Ed25519FieldElement.squareInto(h, h);
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) f.multiply(g).square()).t));
+            Ed25519FieldElement.squareAndDoubleInto(g.t.clone(), h);
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) g.squareAndDouble()).t));
+            Ed25519FieldElement.addInto(f.t, g.t, h);
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) f.add(g)).t));
+            Ed25519FieldElement.subtractInto(f.t, g.t, h);
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) f.subtract(g)).t));
+        }
+    }
+
+    @Test
+    public void squareNIntoMatchesRepeatedSquaring() {
+        // Arrange:
+        final FieldElement f = MathUtils.getRandomFieldElement();
+        FieldElement expected = f;
+        final int[] h = new int[10];
+
+        for (int n=1; n<=20; n++) {
+            // Act:
+            expected = expected.square();
+            Ed25519FieldElement.squareNInto(((Ed25519FieldElement) f).t, n, h);
+
+            // Assert:
+            Assert.assertThat(h, IsEqual.equalTo(((Ed25519FieldElement) expected).t));
+        }
+    }
+
+    @Test
+    public void inPlaceInvertAndPowMayOverlapInput() {
+        for (int i=0; i<10; i++) {
+            // Arrange:
+            final Ed25519FieldElement f = (Ed25519FieldElement) MathUtils.getRandomFieldElement();
+            final int[] h1 = f.t.clone();
+            final int[] h2 = f.t.clone();
+
+            // Act:
+            Ed25519FieldElement.invertInto(h1, h1);
+            Ed25519FieldElement.pow22523Into(h2, h2);
+
+            // Assert:
+            Assert.assertThat(new Ed25519FieldElement(MathUtils.getField(), h1).multiply(f), IsEqual.equalTo(MathUtils.getField().ONE));
+            Assert.assertThat(h2, IsEqual.equalTo(((Ed25519FieldElement) f.pow22523()).t));
+        }
+    }
+
+    /**
+     * $p$ in the limbs of {@link Ed25519FieldElement}.
+     */
+    private static final int[] P = {
+        (1 << 26) - 19, (1 << 25) - 1, (1 << 26) - 1, (1 << 25) - 1, (1 << 26) - 1,
+        (1 << 25) - 1, (1 << 26) - 1, (1 << 25) - 1, (1 << 26) - 1, (1 << 25) - 1
+    };
+
+    private static int[] multiplyLimbs(final int[] f, final int c) {
+        final int[] h = new int[10];
+        for (int i=0; i<10; i++) {
+            h[i] = c * f[i];
+        }
+        return h;
+    }
+
+    @Test
+    public void isZeroRecognizesUnreducedZero() {
+        final int[] one = new int[10];
+        one[0] = 1;
+
+        Assert.assertThat(Ed25519FieldElement.isZero(new int[10]), IsEqual.equalTo(1));
+        Assert.assertThat(Ed25519FieldElement.isZero(P), IsEqual.equalTo(1));
+        // 2^26 - 2^26 with the carry not propagated
+        final int[] borrow = new int[10];
+        borrow[0] = 1 << 26;
+        borrow[1] = -1;
+        Assert.assertThat(Ed25519FieldElement.isZero(borrow), IsEqual.equalTo(1));
+        Assert.assertThat(Ed25519FieldElement.isZero(multiplyLimbs(P, -1)), IsEqual.equalTo(1));
+        Assert.assertThat(Ed25519FieldElement.isZero(one), IsEqual.equalTo(0));
+        Assert.assertThat(Ed25519FieldElement.isZero(multiplyLimbs(one, -1)), IsEqual.equalTo(0));
+        final int[] pPlusOne = P.clone();
+        pPlusOne[0]++;
+        Assert.assertThat(Ed25519FieldElement.isZero(pPlusOne), IsEqual.equalTo(0));
+    }
+
+    @Test
+    public void limbComparisonsMatchEncoding() {
+        final Field field = MathUtils.getField();
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final Ed25519FieldElement f = (Ed25519FieldElement) MathUtils.getRandomFieldElement();
+            final Ed25519FieldElement g = (Ed25519FieldElement) MathUtils.getRandomFieldElement();
+            final byte[] s = f.toByteArray();
+            // f with a carry moved between its lowest limbs, and f - p, in
+            // unreduced limbs within the bounds of the comparisons
+            final int[] fp = f.t.clone();
+            final int borrow = fp[0] < 0 ? 1 : -1;
+            fp[0] += borrow << 26;
+            fp[1] -= borrow;
+            final int[] fm = new int[10];
+            Ed25519FieldElement.reduceInto(f.t, fm);
+            Ed25519FieldElement.subtractInto(fm, P, fm);
+            final int[] h = new int[10];
+
+            // Act:
+            Ed25519FieldElement.reduceInto(fp, h);
+
+            // Assert:
+            Assert.assertThat(new Ed25519FieldElement(field, h).toByteArray(), IsEqual.equalTo(s));
+            Assert.assertThat(Ed25519FieldElement.equal(f.t, fp), IsEqual.equalTo(1));
+            Assert.assertThat(Ed25519FieldElement.equal(fm, f.t), IsEqual.equalTo(1));
+            Assert.assertThat(Ed25519FieldElement.equal(f.t, g.t), IsEqual.equalTo(Utils.equal(s, g.toByteArray())));
+            Assert.assertThat(new Ed25519FieldElement(field, fm).isNegative(), IsEqual.equalTo((s[0] & 1) != 0));
+            Assert.assertThat(f.isNonZero(), IsEqual.equalTo(Utils.equal(s, new byte[32]) == 0));
+        }
+    }
+
+    @Test
+    public void limbComparisonsAtBounds() {
+        final Field field = MathUtils.getField();
+        // Limbs at the bounds 1.1*2^26, 1.1*2^25, ..., and their negation
+        final int[] f = new int[10];
+        final int[] g = new int[10];
+        for (int i=0; i<10; i++) {
+            f[i] = (int) (1.1 * ((i & 1) == 0 ? 1 << 26 : 1 << 25));
+            g[i] = -f[i];
+        }
+        final byte[] s = new Ed25519FieldElement(field, f).toByteArray();
+        final byte[] t = new Ed25519FieldElement(field, g).toByteArray();
+
+        Assert.assertThat(Ed25519FieldElement.equal(f, f), IsEqual.equalTo(1));
+        Assert.assertThat(Ed25519FieldElement.equal(f, g), IsEqual.equalTo(Utils.equal(s, t)));
+        Assert.assertThat(Ed25519FieldElement.isZero(f), IsEqual.equalTo(Utils.equal(s, new byte[32])));
+        Assert.assertThat(new Ed25519FieldElement(field, g).isNegative(), IsEqual.equalTo((t[0] & 1) != 0));
+    }
+
     // endregion
 }
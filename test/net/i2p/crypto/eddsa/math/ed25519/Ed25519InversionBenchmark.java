@@ -0,0 +1,91 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
+
+/**
+ * Compares the inversion of {@link Ed25519SafeGcd} with the Fermat chain in
+ * {@link Ed25519FieldElement#invertInto(int[], int[])}. Not a unit test; run
+ * it from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     net.i2p.crypto.eddsa.math.ed25519.Ed25519InversionBenchmark [iterations]
+ * </pre>
+ * Each figure is the best of {@link #ROUNDS} rounds over 256 distinct
+ * random elements, after a warm-up round.
+ */
+public class Ed25519InversionBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int ELEMENTS = 256;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        int[][] z = new int[ELEMENTS][];
+        for (int i = 0; i < ELEMENTS; i++) {
+            z[i] = ((Ed25519FieldElement) MathUtils.getRandomFieldElement()).t;
+        }
+        int[] h1 = new int[10];
+        int[] h2 = new int[10];
+        for (int[] zi : z) {
+            // Both must give the same canonical limbs
+            Ed25519SafeGcd.invertInto(zi, h1);
+            Ed25519FieldElement.invertInto(zi, h2);
+            Ed25519FieldElement.reduceInto(h1, h1);
+            Ed25519FieldElement.reduceInto(h2, h2);
+            if (!Arrays.equals(h1, h2))
+                throw new IllegalStateException("safegcd and Fermat disagree");
+        }
+
+        double safegcd = Double.MAX_VALUE, fermat = Double.MAX_VALUE;
+        for (int r = 0; r <= ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Ed25519SafeGcd.invertInto(z[i % ELEMENTS], h1);
+            }
+            double s = (System.nanoTime() - start) / 1000.0 / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Ed25519FieldElement.invertInto(z[i % ELEMENTS], h2);
+            }
+            double f = (System.nanoTime() - start) / 1000.0 / iterations;
+
+            // Round 0 is the warm-up
+            if (r > 0) {
+                safegcd = Math.min(safegcd, s);
+                fermat = Math.min(fermat, f);
+            }
+        }
+        // Keep the results alive
+        if (h1[0] == 42 && h2[0] == 42)
+            System.out.println();
+
+        System.out.println(String.format("%d inversions of %d distinct elements, best of %d",
+                iterations, ELEMENTS, ROUNDS));
+        System.out.println(String.format("Fermat (invertInto)   %6.2f us/op", fermat));
+        System.out.println(String.format("safegcd               %6.2f us/op  (%.2fx)", safegcd, fermat / safegcd));
+
+        // The full invert(), with the allocation of the result
+        FieldElement e = new Ed25519FieldElement(MathUtils.getField(), z[0]);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            e = e.invert();
+        }
+        System.out.println(String.format("invert()              %6.2f us/op  (%s)",
+                (System.nanoTime() - start) / 1000.0 / iterations, e.isNonZero() ? "ok" : "zero"));
+    }
+}
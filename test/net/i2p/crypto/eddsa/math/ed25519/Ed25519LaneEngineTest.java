@@ -0,0 +1,57 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.math.*;
+import net.i2p.crypto.eddsa.spec.*;
+import org.hamcrest.core.*;
+import org.junit.*;
+
+/**
+ * Checks {@link Ed25519LaneEngine#getInstance()} against one
+ * multiplication at a time. Which engine that is depends on how the
+ * classes are loaded, see Ed25519VectorLaneEngineIT.
+ */
+public class Ed25519LaneEngineTest {
+    static final EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.ED_25519_CURVE_SPEC;
+
+    @Test
+    public void engineMatchesSingleMultiplications() {
+        final GroupElement B = ed25519.getB();
+        final int lanes = Ed25519LaneEngine.getInstance().getLanes();
+        // Full groups of lanes, and a partial one
+        for (int n : new int[] { 1, lanes, 2 * lanes + 1 }) {
+            // Arrange:
+            final GroupElement[] A = new GroupElement[n];
+            final byte[][] a = new byte[n][];
+            final byte[][] b = new byte[n][];
+            for (int i = 0; i < n; i++) {
+                // Mix the default and the widest tables
+                A[i] = MathUtils.getRandomGroupElement().toP3PrecomputeDouble(
+                        i % 2 == 0 ? 5 : GroupElement.MAX_WINDOW_WIDTH);
+                a[i] = MathUtils.getRandomFieldElement().toByteArray();
+                b[i] = MathUtils.getRandomFieldElement().toByteArray();
+            }
+            // All-zero scalars skip the whole loop
+            a[0] = new byte[32];
+            b[0] = new byte[32];
+
+            // Act:
+            final GroupElement[] r = B.doubleScalarMultiplyVariableTime(A, a, b);
+
+            // Assert:
+            for (int i = 0; i < n; i++) {
+                Assert.assertThat(r[i], IsEqual.equalTo(B.doubleScalarMultiplyVariableTime(A[i], a[i], b[i])));
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.EdDSA;
+import net.i2p.crypto.eddsa.EdDSAPrivateKey;
+import net.i2p.crypto.eddsa.EdDSAPublicKey;
+import net.i2p.crypto.eddsa.Ed25519TestVectors;
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.*;
+import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+import org.hamcrest.core.*;
+import org.junit.*;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * Tests rely on the BigInteger class.
+ */
+public class Ed25519LongFieldElementTest extends AbstractFieldElementTest {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final Field field = new Field(
+            256, // b
+            Utils.hexToBytes("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"), // q
+            new Ed25519LongLittleEndianEncoding());
+
+    protected FieldElement getRandomFieldElement() {
+        final long[] t = new long[5];
+        for (int j=0; j<5; j++) {
+            t[j] = random.nextLong() & Ed25519LongFieldElement.MASK;
+        }
+        return new Ed25519LongFieldElement(field, t);
+    }
+
+    protected BigInteger toBigInteger(FieldElement f) {
+        return MathUtils.toBigInteger(f.toByteArray());
+    }
+
+    protected BigInteger getQ() {
+        return MathUtils.getQ();
+    }
+
+    protected Field getField() {
+        return field;
+    }
+
+    private static BigInteger toBigInteger(final long[] t) {
+        BigInteger b = BigInteger.ZERO;
+        for (int i=0; i<5; i++) {
+            b = b.add(BigInteger.valueOf(t[i]).shiftLeft(51 * i));
+        }
+        return b;
+    }
+
+    // region constructor
+
+    @Test
+    public void canConstructFieldElementFromArrayWithCorrectLength() {
+        // Assert:
+        new Ed25519LongFieldElement(field, new long[5]);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void cannotConstructFieldElementFromArrayWithIncorrectLength() {
+        // Assert:
+        new Ed25519LongFieldElement(field, new long[4]);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void cannotConstructFieldElementWithoutField() {
+        // Assert:
+        new Ed25519LongFieldElement(null, new long[5]);
+    }
+
+    // endregion
+
+    // region isNonZero
+
+    protected FieldElement getZeroFieldElement() {
+        return new Ed25519LongFieldElement(field, new long[5]);
+    }
+
+    protected FieldElement getNonZeroFieldElement() {
+        final long[] t = new long[5];
+        t[0] = 5;
+        return new Ed25519LongFieldElement(field, t);
+    }
+
+    // endregion
+
+    // region encoding
+
+    @Test
+    public void encodingMatchesIntegerField() {
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final byte[] bytes = MathUtils.getRandomByteArray(32);
+            final FieldElement f = MathUtils.getField().getEncoding().decode(bytes);
+            final FieldElement g = field.getEncoding().decode(bytes);
+
+            // Assert:
+            Assert.assertThat(g.toByteArray(), IsEqual.equalTo(f.toByteArray()));
+            Assert.assertThat(g.isNegative(), IsEqual.equalTo(f.isNegative()));
+        }
+    }
+
+    @Test
+    public void encodeReducesLimbsAtTheirBounds() {
+        // Arrange:
+        final long[] t = new long[5];
+        for (int j=0; j<5; j++) {
+            t[j] = Ed25519LongFieldElement.MASK + 1;
+        }
+        final FieldElement f = new Ed25519LongFieldElement(field, t);
+
+        // Act:
+        final byte[] bytes = f.toByteArray();
+
+        // Assert:
+        Assert.assertThat(bytes, IsEqual.equalTo(MathUtils.toByteArray(toBigInteger(t).mod(getQ()))));
+    }
+
+    @Test
+    public void encodeReturnsCanonicalValueForP() {
+        // Arrange:
+        final FieldElement f = field.getEncoding().decode(MathUtils.toByteArray(getQ()));
+
+        // Assert:
+        Assert.assertThat(f.isNonZero(), IsEqual.equalTo(false));
+        Assert.assertThat(f.toByteArray(), IsEqual.equalTo(new byte[32]));
+    }
+
+    @Test
+    public void multiplyHighMatchesBigInteger() {
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final long x = random.nextLong();
+            final long y = random.nextLong();
+            final long expected = BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)).shiftRight(64).longValue();
+
+            // Assert:
+            Assert.assertThat(MultiplyHigh.multiplyHigh(x, y), IsEqual.equalTo(expected));
+        }
+    }
+
+    // endregion
+
+    // region test vectors
+
+    @Test
+    public void signAndVerifyMatchTestVectors() {
+        // Arrange:
+        final Curve curve = new Curve(field,
+                Utils.hexToBytes("a3785913ca4deb75abd841414d0a700098e879777940c78c73fe6f2bee6c0352"), // d
+                field.fromByteArray(Utils.hexToBytes("b0a00e4a271beec478e42fad0618432fa7d7fb3d99004d2b0bdfc14f8024832b"))); // I
+        final EdDSAParameterSpec spec = new EdDSAParameterSpec(curve, "SHA-512", new Ed25519ScalarOps(),
+                curve.createPoint(Utils.hexToBytes("5866666666666666666666666666666666666666666666666666666666666666"), true));
+
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            final EdDSAPrivateKey sKey = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(testCase.seed, spec));
+            final EdDSAPublicKey vKey = new EdDSAPublicKey(new EdDSAPublicKeySpec(testCase.pk, spec));
+
+            // Assert:
+            Assert.assertThat("Test case " + testCase.caseNum + " failed",
+                    sKey.getAbyte(), IsEqual.equalTo(testCase.pk));
+            Assert.assertThat("Test case " + testCase.caseNum + " failed",
+                    EdDSA.sign(sKey, testCase.message), IsEqual.equalTo(testCase.sig));
+            Assert.assertThat("Test case " + testCase.caseNum + " failed",
+                    EdDSA.verify(vKey, testCase.message, testCase.sig), IsEqual.equalTo(true));
+        }
+    }
+
+    // endregion
+
+    // region toString
+
+    @Test
+    public void toStringReturnsCorrectRepresentation() {
+        // Arrange:
+        final byte[] bytes = new byte[32];
+        for (int i=0; i<32; i++) {
+            bytes[i] = (byte)(i+1);
+        }
+        final FieldElement f = field.getEncoding().decode(bytes);
+
+        // Act:
+        final String fAsString = f.toString();
+        final StringBuilder builder = new StringBuilder();
+        builder.append("[Ed25519LongFieldElement val=");
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        builder.append("]");
+
+        // Assert:
+        Assert.assertThat(fAsString, IsEqual.equalTo(builder.toString()));
+    }
+
+    // endregion
+}
@@ -0,0 +1,84 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.*;
+import org.hamcrest.core.*;
+import org.junit.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * Checks that the packaged multi-release jar loads the Java 9
+ * {@link MultiplyHigh}, and that {@link Ed25519LongFieldElement} built on
+ * it agrees with {@link Ed25519FieldElement}. Only run by the java17
+ * profile, against the jar.
+ */
+public class Ed25519MultiplyHighIT {
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final byte[] Q = Utils.hexToBytes("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f");
+    private static final Field intField = new Field(256, Q, new Ed25519LittleEndianEncoding());
+    private static final Field longField = new Field(256, Q, new Ed25519LongLittleEndianEncoding());
+
+    @Test
+    public void versionedMultiplyHighIsLoaded() throws IOException {
+        // The class in src is compiled for Java 6 (major version 50), the
+        // one in META-INF/versions/9 for Java 9 (major version 53).
+        final DataInputStream in = new DataInputStream(
+                MultiplyHigh.class.getResourceAsStream("MultiplyHigh.class"));
+        try {
+            Assert.assertThat(in.readInt(), IsEqual.equalTo(0xCAFEBABE));
+            in.readUnsignedShort();
+            Assert.assertThat(in.readUnsignedShort(), IsEqual.equalTo(53));
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void multiplyHighMatchesBigInteger() {
+        for (int i = 0; i < 1000; i++) {
+            final long x = random.nextLong();
+            final long y = random.nextLong();
+            Assert.assertThat(MultiplyHigh.multiplyHigh(x, y),
+                    IsEqual.equalTo(BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)).shiftRight(64).longValue()));
+        }
+    }
+
+    @Test
+    public void multiplyMatchesIntField() {
+        for (int i = 0; i < 1000; i++) {
+            // Arrange:
+            final byte[] a = randomEncoding();
+            final byte[] b = randomEncoding();
+
+            // Act:
+            final FieldElement intProduct = intField.fromByteArray(a).multiply(intField.fromByteArray(b));
+            final FieldElement longProduct = longField.fromByteArray(a).multiply(longField.fromByteArray(b));
+
+            // Assert:
+            Assert.assertThat(longProduct.toByteArray(), IsEqual.equalTo(intProduct.toByteArray()));
+        }
+    }
+
+    private static byte[] randomEncoding() {
+        final byte[] s = new byte[32];
+        random.nextBytes(s);
+        s[31] &= 0x7f;
+        return s;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
+
+import org.junit.Test;
+
+/**
+ * Cross-checks against the Fermat inversion and BigInteger.
+ */
+public class Ed25519SafeGcdTest {
+    private static final SecureRandom random = new SecureRandom();
+
+    private static int[] invert(int[] z) {
+        int[] h = new int[10];
+        Ed25519SafeGcd.invertInto(z, h);
+        return h;
+    }
+
+    private static int[] invertFermat(int[] z) {
+        int[] h = new int[10];
+        Ed25519FieldElement.invertInto(z, h);
+        return h;
+    }
+
+    private static FieldElement fe(int[] t) {
+        return new Ed25519FieldElement(MathUtils.getField(), t);
+    }
+
+    @Test
+    public void invertMatchesFermat() {
+        for (int i = 0; i < 1000; i++) {
+            final int[] z = ((Ed25519FieldElement) MathUtils.getRandomFieldElement()).t;
+            assertThat(fe(invert(z)), is(equalTo(fe(invertFermat(z)))));
+        }
+    }
+
+    @Test
+    public void invertMatchesBigInteger() {
+        for (int i = 0; i < 100; i++) {
+            final BigInteger b = new BigInteger(255, random).mod(MathUtils.getQ());
+            final int[] z = ((Ed25519FieldElement) MathUtils.toFieldElement(b)).t;
+            final BigInteger expected = b.signum() == 0 ? BigInteger.ZERO : b.modInverse(MathUtils.getQ());
+            assertThat(MathUtils.toBigInteger(invert(z)), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void invertEdgeCases() {
+        final BigInteger q = MathUtils.getQ();
+        final BigInteger[] values = {
+            BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(19),
+            q.subtract(BigInteger.ONE), q.subtract(BigInteger.valueOf(2)), q.shiftRight(1),
+            BigInteger.ONE.shiftLeft(254), BigInteger.ONE.shiftLeft(30)
+        };
+        for (BigInteger b : values) {
+            final int[] z = ((Ed25519FieldElement) MathUtils.toFieldElement(b)).t;
+            final BigInteger expected = b.signum() == 0 ? BigInteger.ZERO : b.modInverse(q);
+            assertThat(b.toString(), MathUtils.toBigInteger(invert(z)), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void invertAcceptsUnreducedLimbs() {
+        // p + 5, p plus 2^25 or 2^24 in every limb, and negative limbs
+        final int[][] inputs = {
+            { 0x3FFFFED + 5, 0x1FFFFFF, 0x3FFFFFF, 0x1FFFFFF, 0x3FFFFFF, 0x1FFFFFF, 0x3FFFFFF, 0x1FFFFFF, 0x3FFFFFF, 0x1FFFFFF },
+            { 0x3FFFFED + (1 << 25), 0x1FFFFFF + (1 << 24), 0x3FFFFFF + (1 << 25), 0x1FFFFFF + (1 << 24), 0x3FFFFFF + (1 << 25),
+              0x1FFFFFF + (1 << 24), 0x3FFFFFF + (1 << 25), 0x1FFFFFF + (1 << 24), 0x3FFFFFF + (1 << 25), 0x1FFFFFF + (1 << 24) },
+            { -(1 << 25), -(1 << 24), -(1 << 25), -(1 << 24), -(1 << 25), -(1 << 24), -(1 << 25), -(1 << 24), -(1 << 25), -(1 << 24) },
+        };
+        for (int[] z : inputs) {
+            assertThat(fe(invert(z)), is(equalTo(fe(invertFermat(z)))));
+        }
+    }
+
+    @Test
+    public void invertCanOverlap() {
+        final int[] z = ((Ed25519FieldElement) MathUtils.getRandomFieldElement()).t;
+        final int[] expected = invertFermat(z);
+        Ed25519SafeGcd.invertInto(z, z);
+        assertThat(fe(z), is(equalTo(fe(expected))));
+    }
+}
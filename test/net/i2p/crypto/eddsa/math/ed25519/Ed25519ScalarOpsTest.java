@@ -89,4 +89,21 @@ public class Ed25519ScalarOpsTest {
             Assert.assertThat(result1, IsEqual.equalTo(result2));
         }
     }
+
+    @Test
+    public void multiplyAndAddWithLimbsReturnsSameResult() {
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final byte[] bytes1 = MathUtils.getRandomByteArray(32);
+            final byte[] bytes2 = MathUtils.getRandomByteArray(32);
+            final byte[] bytes3 = MathUtils.getRandomByteArray(32);
+
+            // Act:
+            final byte[] result1 = scalarOps.multiplyAndAdd(bytes1, bytes2, bytes3);
+            final byte[] result2 = scalarOps.multiplyAndAdd(bytes1, Ed25519ScalarOps.toLimbs(bytes2), bytes3);
+
+            // Assert:
+            Assert.assertThat(result2, IsEqual.equalTo(result1));
+        }
+    }
 }
@@ -0,0 +1,28 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import org.hamcrest.core.*;
+import org.junit.*;
+
+/**
+ * Runs {@link Ed25519LaneEngineTest} against the packaged multi-release
+ * jar, where the vector engine is loaded on Java 17. Only run by the
+ * java17 profile.
+ */
+public class Ed25519VectorLaneEngineIT extends Ed25519LaneEngineTest {
+    @Test
+    public void vectorEngineIsLoaded() {
+        Assert.assertThat(Ed25519LaneEngine.getInstance().getClass().getSimpleName(),
+                IsEqual.equalTo("Ed25519VectorLaneEngine"));
+    }
+}